@@ -0,0 +1,303 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.Arrays;
+
+/**
+ * This class indexes the lemmas in a table of index terms by
+ * their letters.  The signature of a lemma is its non-space
+ * characters in lower case, sorted, so anagrams have the same
+ * signature.  The distinct signatures are kept in a trie, and
+ * the term IDs are sorted by signature, so the anagrams of a
+ * word are found with one lookup of its signature.  The lemmas
+ * that can be built from a bag of letters are found by walking
+ * the trie, following only the letters left in the bag; since
+ * the letters of each signature are sorted, a branch is skipped
+ * as soon as its next letter has run out.  The filter still
+ * checks each candidate.
+ * 
+ * @author mwallace
+ */
+final class AnagramIndex
+{
+  /**
+   * The trie of the distinct signatures.
+   */
+  private final LemmaTrie trie;
+  
+  /**
+   * The term IDs, sorted by signature (and then by ID).
+   */
+  private final int[] order;
+  
+  /**
+   * The position in order of the first term ID for each
+   * signature.  This has one more entry than the trie has keys.
+   */
+  private final int[] signatureStart;
+  
+  
+  /**
+   * Constructor taking the table to index.
+   * 
+   * @param table the table of index terms
+   */
+  AnagramIndex(final IndexTermTable table)
+  {
+    // Sort the IDs by signature; the sort is stable, so the IDs
+    // for each signature stay in increasing order
+    final int nSize = table.size();
+    final String[] signatures = new String[nSize];
+    Integer[] ids = new Integer[nSize];
+    for (int id = 0; id < nSize; ++id)
+    {
+      signatures[id] = getSignature(table.getLemma(id));
+      ids[id] = Integer.valueOf(id);
+    }
+    
+    Arrays.sort(ids, new java.util.Comparator<Integer>()
+    {
+      public int compare(final Integer id1, final Integer id2)
+      {
+        return signatures[id1.intValue()].compareTo(signatures[id2.intValue()]);
+      }
+    });
+    
+    // Save the IDs, and the distinct signatures
+    order = new int[nSize];
+    String[] keys = new String[nSize];
+    int[] starts = new int[nSize + 1];
+    int nKeys = 0;
+    for (int i = 0; i < nSize; ++i)
+    {
+      order[i] = ids[i].intValue();
+      final String signature = signatures[order[i]];
+      if ((nKeys == 0) || (!signature.equals(keys[nKeys - 1])))
+      {
+        keys[nKeys] = signature;
+        starts[nKeys++] = i;
+      }
+    }
+    
+    starts[nKeys] = nSize;
+    signatureStart = Arrays.copyOf(starts, nKeys + 1);
+    trie = new LemmaTrie(Arrays.copyOf(keys, nKeys));
+  }
+  
+  
+  /**
+   * Return the signature of a word: its non-space characters
+   * in lower case, sorted.
+   * 
+   * @param word the word
+   * @return the signature
+   */
+  static String getSignature(final String word)
+  {
+    final int nLen = word.length();
+    char[] chars = new char[nLen];
+    int nCount = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = word.charAt(i);
+      if (ch != ' ')
+      {
+        chars[nCount++] = Character.toLowerCase(ch);
+      }
+    }
+    
+    Arrays.sort(chars, 0, nCount);
+    return new String(chars, 0, nCount);
+  }
+  
+  
+  /**
+   * Return the IDs of the terms with lemmas that are anagrams
+   * of a word, ignoring case, in increasing order.
+   * 
+   * @param word the word
+   * @return the IDs of the matching terms
+   */
+  IndexTermTable.Candidates find(final String word)
+  {
+    final int key = trie.find(getSignature(word));
+    if (key < 0)
+    {
+      return new IndexTermTable.Candidates(0, 0);
+    }
+    
+    final int[] ids = Arrays.copyOfRange(order, signatureStart[key],
+                                         signatureStart[key + 1]);
+    return new IndexTermTable.Candidates(ids, ids.length);
+  }
+  
+  
+  /**
+   * Return the IDs of the terms with lemmas that can be built
+   * from the letters of a word, ignoring case, in increasing order.
+   * 
+   * @param letters the letters
+   * @return the IDs of the matching terms
+   */
+  IndexTermTable.Candidates findWithin(final String letters)
+  {
+    // Count each distinct letter
+    final String signature = getSignature(letters);
+    final int nLen = signature.length();
+    char[] chars = new char[nLen];
+    int[] counts = new int[nLen];
+    int nDistinct = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      if ((nDistinct == 0) || (signature.charAt(i) != chars[nDistinct - 1]))
+      {
+        chars[nDistinct++] = signature.charAt(i);
+      }
+      
+      ++counts[nDistinct - 1];
+    }
+    
+    // Collect the term IDs for the signatures in the trie
+    final Walk walk = new Walk(Arrays.copyOf(chars, nDistinct), counts);
+    if (trie.isTerminal(LemmaTrie.ROOT))
+    {
+      walk.add(trie.getFirst(LemmaTrie.ROOT));
+    }
+    
+    walk.visit(LemmaTrie.ROOT, 0);
+    
+    final int[] ids = Arrays.copyOf(walk.ids, walk.count);
+    Arrays.sort(ids);
+    return new IndexTermTable.Candidates(ids, ids.length);
+  }
+  
+  
+  /**
+   * The state of a walk of the trie for a bag of letters.
+   */
+  private final class Walk
+  {
+    /**
+     * The distinct letters in the bag, sorted.
+     */
+    private final char[] chars;
+    
+    /**
+     * The number of each letter left in the bag.
+     */
+    private final int[] counts;
+    
+    /**
+     * The term IDs found so far.
+     */
+    private int[] ids = new int[16];
+    
+    /**
+     * The number of term IDs found.
+     */
+    private int count = 0;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param bagChars the distinct letters in the bag, sorted
+     * @param bagCounts the number of each letter in the bag
+     */
+    Walk(final char[] bagChars, final int[] bagCounts)
+    {
+      chars = bagChars;
+      counts = bagCounts;
+    }
+    
+    
+    /**
+     * Visit the children of a node whose letters are left in the
+     * bag.  The letters on a path are sorted, so the children
+     * only need to be checked against the letters from the one
+     * on the path to the node.
+     * 
+     * @param node the node
+     * @param firstChar the position in chars of the node's letter
+     */
+    void visit(final int node, final int firstChar)
+    {
+      final int nEnd = trie.getChildEnd(node);
+      int pos = firstChar;
+      for (int child = trie.getChildStart(node); child < nEnd; ++child)
+      {
+        // Find the child's letter in the bag
+        final char ch = trie.getLabel(child);
+        while ((pos < chars.length) && (chars[pos] < ch))
+        {
+          ++pos;
+        }
+        
+        if (pos == chars.length)
+        {
+          return;
+        }
+        else if ((chars[pos] != ch) || (counts[pos] == 0))
+        {
+          continue;
+        }
+        
+        // Take the letter from the bag, and visit the child
+        --counts[pos];
+        if (trie.isTerminal(child))
+        {
+          add(trie.getFirst(child));
+        }
+        
+        visit(child, pos);
+        ++counts[pos];
+      }
+    }
+    
+    
+    /**
+     * Add the term IDs for a signature.
+     * 
+     * @param key the position of the signature in the trie
+     */
+    void add(final int key)
+    {
+      final int nStart = signatureStart[key];
+      final int nLength = signatureStart[key + 1] - nStart;
+      if ((count + nLength) > ids.length)
+      {
+        ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + nLength));
+      }
+      
+      System.arraycopy(order, nStart, ids, count, nLength);
+      count += nLength;
+    }
+  }
+}
@@ -0,0 +1,538 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class splits a line of a WordNet index or data file
+ * into tokens, reading the bytes of the line in place.  The
+ * numeric fields are parsed directly from the bytes, so only
+ * the tokens returned as strings (the lemmas and the gloss)
+ * allocate any memory.  The files are ASCII, so each byte is
+ * treated as one character.
+ * <p>
+ * The line is the range of a buffer between two positions.
+ * All reads use absolute positions, so the buffer can be
+ * shared with other parsers.  Like LineSplitter, tokens are
+ * separated by one or more spaces.
+ * 
+ * @author mwallace
+ */
+final class ByteLineParser
+{
+  /**
+   * The pointer symbols used in the WordNet files.  A pointer
+   * symbol that matches one of these is returned without
+   * allocating a new string.
+   */
+  private static final String[] SYMBOLS = {"!", "@", "@i", "~", "~i",
+    "#m", "#s", "#p", "%m", "%s", "%p", "=", "+", ";c", "-c", ";r", "-r",
+    ";u", "-u", "*", ">", "^", "$", "&", "<", "\\"};
+  
+  /**
+   * The buffer holding the line.
+   */
+  private ByteBuffer buffer = null;
+  
+  /**
+   * The current position in the line.
+   */
+  private int position = 0;
+  
+  /**
+   * The position of the end of the line.
+   */
+  private int end = 0;
+  
+  /**
+   * The characters of the last string, reused between strings.
+   */
+  private char[] chars = new char[64];
+  
+  /**
+   * The characters of the last lemma, reused between lemmas.
+   */
+  private char[] lemmaBuffer = new char[64];
+  
+  /**
+   * The number of characters in the last lemma.
+   */
+  private int lemmaLength = 0;
+  
+  /**
+   * The view of the characters of the last lemma.
+   */
+  private final CharSequence lemmaChars = new LemmaChars();
+  
+  
+  /**
+   * Constructor taking the buffer holding the lines.
+   * 
+   * @param buf the buffer holding the lines
+   */
+  ByteLineParser(final ByteBuffer buf)
+  {
+    buffer = buf;
+  }
+  
+  
+  /**
+   * Constructor taking a line in a string.
+   * 
+   * @param line the line to parse
+   */
+  ByteLineParser(final String line)
+  {
+    final int nLen = line.length();
+    buffer = ByteBuffer.allocate(nLen);
+    for (int i = 0; i < nLen; ++i)
+    {
+      buffer.put(i, (byte) line.charAt(i));
+    }
+    end = nLen;
+  }
+  
+  
+  /**
+   * Set the buffer holding the lines.
+   * 
+   * @param buf the buffer holding the lines
+   */
+  void setBuffer(final ByteBuffer buf)
+  {
+    buffer = buf;
+  }
+  
+  
+  /**
+   * Set the range of the buffer holding the line to parse.
+   * 
+   * @param nStart the position of the start of the line
+   * @param nEnd the position of the end of the line
+   */
+  void setLine(final int nStart, final int nEnd)
+  {
+    position = nStart;
+    end = nEnd;
+  }
+  
+  
+  /**
+   * Set the line to parse to the line starting at a position,
+   * and ending at the next newline or the end of the buffer.
+   * A carriage return at the end of the line is dropped.
+   * 
+   * @param nStart the position of the start of the line
+   */
+  void setLine(final int nStart)
+  {
+    final int limit = buffer.limit();
+    int nEnd = nStart;
+    while ((nEnd < limit) && (buffer.get(nEnd) != '\n'))
+    {
+      ++nEnd;
+    }
+    
+    if ((nEnd > nStart) && (buffer.get(nEnd - 1) == '\r'))
+    {
+      --nEnd;
+    }
+    
+    setLine(nStart, nEnd);
+  }
+  
+  
+  /**
+   * Return whether the line is empty.
+   * 
+   * @return whether the line has no characters
+   */
+  boolean isEmpty()
+  {
+    return (position >= end);
+  }
+  
+  
+  /**
+   * Return the character at the current position, without
+   * moving past it.
+   * 
+   * @return the current character, or 0 at the end of the line
+   */
+  char peek()
+  {
+    return ((position < end) ? (char) (buffer.get(position) & 0xFF) : 0);
+  }
+  
+  
+  /**
+   * Move past the spaces at the current position.
+   */
+  private void skipSpaces()
+  {
+    while ((position < end) && (buffer.get(position) == ' '))
+    {
+      ++position;
+    }
+  }
+  
+  
+  /**
+   * Move to the end of the current token.
+   * 
+   * @return the position of the end of the token
+   */
+  private int findTokenEnd()
+  {
+    while ((position < end) && (buffer.get(position) != ' '))
+    {
+      ++position;
+    }
+    
+    return position;
+  }
+  
+  
+  /**
+   * Returns whether the line has more tokens.
+   * 
+   * @return whether the line has more tokens
+   */
+  boolean hasMoreTokens()
+  {
+    skipSpaces();
+    return (position < end);
+  }
+  
+  
+  /**
+   * Move past the next token.
+   */
+  void skipToken()
+  {
+    skipSpaces();
+    findTokenEnd();
+  }
+  
+  
+  /**
+   * Returns the next token, or an empty string if there are
+   * no more tokens.
+   * 
+   * @return the next token
+   */
+  String nextToken()
+  {
+    skipSpaces();
+    final int nStart = position;
+    return getString(nStart, findTokenEnd());
+  }
+  
+  
+  /**
+   * Returns the next token, with each underscore replaced by a
+   * space.  This is how the lemmas and words are stored in the
+   * index and data files.
+   * 
+   * @return the next token, as a lemma
+   */
+  String nextLemma()
+  {
+    return nextLemmaChars().toString();
+  }
+  
+  
+  /**
+   * Reads the next token as a lemma, like nextLemma(), but
+   * returns a view of its characters instead of a string.  The
+   * view is reused, so it only holds the lemma until the next
+   * one is read; call toString() on it to keep the lemma.
+   * 
+   * @return the characters of the next token, as a lemma
+   */
+  CharSequence nextLemmaChars()
+  {
+    skipSpaces();
+    final int nStart = position;
+    final int nLen = findTokenEnd() - nStart;
+    if (nLen > lemmaBuffer.length)
+    {
+      lemmaBuffer = new char[Math.max(nLen, lemmaBuffer.length * 2)];
+    }
+    
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = (char) (buffer.get(nStart + i) & 0xFF);
+      lemmaBuffer[i] = ((ch == '_') ? ' ' : ch);
+    }
+    
+    lemmaLength = nLen;
+    return lemmaChars;
+  }
+  
+  
+  /**
+   * Returns the first character of the next token, and moves
+   * past the token.
+   * 
+   * @return the first character of the next token, or 0 if
+   *         there are no more tokens
+   */
+  char nextChar()
+  {
+    skipSpaces();
+    final char ch = peek();
+    findTokenEnd();
+    return ch;
+  }
+  
+  
+  /**
+   * Returns whether the next token is the specified character,
+   * and moves past the token.
+   * 
+   * @param ch the character to compare to
+   * @return whether the next token is the character
+   */
+  boolean nextTokenIs(final char ch)
+  {
+    skipSpaces();
+    final int nStart = position;
+    return (((findTokenEnd() - nStart) == 1) &&
+            ((buffer.get(nStart) & 0xFF) == ch));
+  }
+  
+  
+  /**
+   * Returns the next token as a pointer symbol.  The common
+   * symbols are returned without allocating a new string.
+   * 
+   * @return the pointer symbol
+   */
+  String nextSymbol()
+  {
+    skipSpaces();
+    final int nStart = position;
+    final int nLen = findTokenEnd() - nStart;
+    
+    // Look for a matching symbol
+    for (int i = 0; i < SYMBOLS.length; ++i)
+    {
+      final String symbol = SYMBOLS[i];
+      if (symbol.length() == nLen)
+      {
+        int j = 0;
+        while ((j < nLen) && ((buffer.get(nStart + j) & 0xFF) == symbol.charAt(j)))
+        {
+          ++j;
+        }
+        
+        if (j == nLen)
+        {
+          return symbol;
+        }
+      }
+    }
+    
+    return getString(nStart, nStart + nLen);
+  }
+  
+  
+  /**
+   * Returns the next token as a decimal number.
+   * 
+   * @return the value of the next token
+   */
+  long nextLong()
+  {
+    skipSpaces();
+    final int nStart = position;
+    final int nEnd = findTokenEnd();
+    if (nStart == nEnd)
+    {
+      throw new NumberFormatException("Missing number in the line");
+    }
+    
+    long value = 0L;
+    for (int i = nStart; i < nEnd; ++i)
+    {
+      final int digit = buffer.get(i) - '0';
+      if ((digit < 0) || (digit > 9))
+      {
+        throw new NumberFormatException("For input string: \"" +
+                                        getString(nStart, nEnd) + "\"");
+      }
+      
+      value = (value * 10L) + digit;
+    }
+    
+    return value;
+  }
+  
+  
+  /**
+   * Returns the next token as a decimal number.
+   * 
+   * @return the value of the next token
+   */
+  int nextInt()
+  {
+    return (int) nextLong();
+  }
+  
+  
+  /**
+   * Returns the next token as a hexadecimal number.
+   * 
+   * @return the value of the next token
+   */
+  int nextHex()
+  {
+    skipSpaces();
+    final int nStart = position;
+    final int nEnd = findTokenEnd();
+    if (nStart == nEnd)
+    {
+      throw new NumberFormatException("Missing number in the line");
+    }
+    
+    int value = 0;
+    for (int i = nStart; i < nEnd; ++i)
+    {
+      final int digit = Character.digit((char) (buffer.get(i) & 0xFF), 16);
+      if (digit < 0)
+      {
+        throw new NumberFormatException("For input string: \"" +
+                                        getString(nStart, nEnd) + "\"");
+      }
+      
+      value = (value << 4) + digit;
+    }
+    
+    return value;
+  }
+  
+  
+  /**
+   * Returns the remainder of the line (past the spaces).
+   * 
+   * @return the remainder of the line
+   */
+  String restOfLine()
+  {
+    skipSpaces();
+    final int nStart = position;
+    position = end;
+    return getString(nStart, end);
+  }
+  
+  
+  /**
+   * Return the characters of the buffer between two positions.
+   * 
+   * @param nStart the position of the first character
+   * @param nEnd the position after the last character
+   * @return the characters as a string
+   */
+  private String getString(final int nStart, final int nEnd)
+  {
+    final int nLen = nEnd - nStart;
+    if (nLen > chars.length)
+    {
+      chars = new char[Math.max(nLen, chars.length * 2)];
+    }
+    
+    for (int i = 0; i < nLen; ++i)
+    {
+      chars[i] = (char) (buffer.get(nStart + i) & 0xFF);
+    }
+    
+    return new String(chars, 0, nLen);
+  }
+  
+  
+  /**
+   * The characters of the last lemma read.
+   */
+  private final class LemmaChars implements CharSequence
+  {
+    /**
+     * Returns the number of characters.
+     * 
+     * @return the length of the lemma
+     */
+    public int length()
+    {
+      return lemmaLength;
+    }
+    
+    
+    /**
+     * Returns the character at a position.
+     * 
+     * @param index the position
+     * @return the character
+     */
+    public char charAt(final int index)
+    {
+      if ((index < 0) || (index >= lemmaLength))
+      {
+        throw new IndexOutOfBoundsException("Invalid index: " + index);
+      }
+      
+      return lemmaBuffer[index];
+    }
+    
+    
+    /**
+     * Returns the characters between two positions.
+     * 
+     * @param nStart the position of the first character
+     * @param nEnd the position after the last character
+     * @return the characters as a string
+     */
+    public CharSequence subSequence(final int nStart, final int nEnd)
+    {
+      return toString().substring(nStart, nEnd);
+    }
+    
+    
+    /**
+     * Returns the lemma as a string.
+     * 
+     * @return the lemma
+     */
+    @Override
+    public String toString()
+    {
+      return new String(lemmaBuffer, 0, lemmaLength);
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class reads the lines of a WordNet index or data file
+ * from a file channel into a large buffer, and parses each
+ * line in place with a ByteLineParser.  No objects are created
+ * for a line unless the caller asks the parser for a string.
+ * The buffer is on the heap, so a reader that is dropped is
+ * collected like any other object; a direct buffer would be
+ * allocated outside the heap for each search.
+ * <p>
+ * The reader can also be given a file instead of a channel.
+ * The file is then opened only while the buffer is filled,
+ * so a reader that is dropped before the end of the file
+ * doesn't hold it open.
+ * 
+ * @author mwallace
+ */
+final class ChannelLineReader
+{
+  /**
+   * The default initial size of the buffer.
+   */
+  static final int BUFFER_SIZE = 256 * 1024;
+  
+  /**
+   * The channel to read, or null if the file is opened for
+   * each read.
+   */
+  private final FileChannel channel;
+  
+  /**
+   * The file to read, or null if a channel is read.
+   */
+  private final File file;
+  
+  /**
+   * The position in the file of the next byte to read.
+   */
+  private long readPosition;
+  
+  /**
+   * The buffer holding the bytes read from the channel.
+   */
+  private ByteBuffer buffer;
+  
+  /**
+   * The parser for the current line.
+   */
+  private final ByteLineParser parser;
+  
+  /**
+   * The position of the start of the next line in the buffer.
+   */
+  private int lineStart = 0;
+  
+  /**
+   * The position of the end of the bytes read into the buffer.
+   */
+  private int dataEnd = 0;
+  
+  /**
+   * Whether the end of the channel has been reached.
+   */
+  private boolean eof = false;
+  
+  /**
+   * The position in the channel of the start of the buffer.
+   */
+  private long bufferOffset;
+  
+  /**
+   * The position in the channel of the start of the current line.
+   */
+  private long lineOffset;
+  
+  
+  /**
+   * Constructor taking the channel to read, and the position
+   * in the channel of the first line to read.
+   * 
+   * @param fileChannel the channel to read
+   * @param start the position of the first line
+   * @throws IOException an exception setting the position
+   */
+  ChannelLineReader(final FileChannel fileChannel, final long start)
+    throws IOException
+  {
+    this(fileChannel, start, BUFFER_SIZE);
+  }
+  
+  
+  /**
+   * Constructor taking the channel to read, the position in
+   * the channel of the first line to read, and the initial
+   * size of the buffer.
+   * 
+   * @param fileChannel the channel to read
+   * @param start the position of the first line
+   * @param bufferSize the initial size of the buffer
+   * @throws IOException an exception setting the position
+   */
+  ChannelLineReader(final FileChannel fileChannel,
+                    final long start,
+                    final int bufferSize)
+    throws IOException
+  {
+    channel = fileChannel;
+    channel.position(start);
+    file = null;
+    bufferOffset = start;
+    lineOffset = start;
+    buffer = ByteBuffer.allocate(bufferSize);
+    parser = new ByteLineParser(buffer);
+  }
+  
+  
+  /**
+   * Constructor taking the file to read, the position in the
+   * file of the first line to read, and the initial size of
+   * the buffer.  The file is opened each time the buffer is
+   * filled, and closed before the lines are returned.
+   * 
+   * @param inFile the file to read
+   * @param start the position of the first line
+   * @param bufferSize the initial size of the buffer
+   */
+  ChannelLineReader(final File inFile,
+                    final long start,
+                    final int bufferSize)
+  {
+    channel = null;
+    file = inFile;
+    readPosition = start;
+    bufferOffset = start;
+    lineOffset = start;
+    buffer = ByteBuffer.allocate(bufferSize);
+    parser = new ByteLineParser(buffer);
+  }
+  
+  
+  /**
+   * Return the parser for the current line.
+   * 
+   * @return the parser for the current line
+   */
+  ByteLineParser getParser()
+  {
+    return parser;
+  }
+  
+  
+  /**
+   * Return the position in the channel of the start of the
+   * current line.
+   * 
+   * @return the position of the current line
+   */
+  long getLineOffset()
+  {
+    return lineOffset;
+  }
+  
+  
+  /**
+   * Move to the next line, and set the parser to it.
+   * 
+   * @return whether there was another line
+   * @throws IOException an exception reading the channel
+   */
+  boolean nextLine() throws IOException
+  {
+    int nEnd = lineStart;
+    while (true)
+    {
+      // Look for the end of the line in the buffer
+      while ((nEnd < dataEnd) && (buffer.get(nEnd) != '\n'))
+      {
+        ++nEnd;
+      }
+      
+      if ((nEnd < dataEnd) || (eof && (lineStart < dataEnd)))
+      {
+        // Set the parser to the line, without the line terminator
+        final int nStart = lineStart;
+        lineStart = ((nEnd < dataEnd) ? (nEnd + 1) : dataEnd);
+        if ((nEnd > nStart) && (buffer.get(nEnd - 1) == '\r'))
+        {
+          --nEnd;
+        }
+        
+        parser.setLine(nStart, nEnd);
+        lineOffset = bufferOffset + nStart;
+        return true;
+      }
+      else if (eof)
+      {
+        return false;
+      }
+      
+      // Read more of the channel, and keep looking
+      nEnd -= lineStart;
+      fill();
+    }
+  }
+  
+  
+  /**
+   * Move the start of the current line to the start of the
+   * buffer, and fill the rest of the buffer from the channel.
+   * 
+   * @throws IOException an exception reading the channel
+   */
+  private void fill() throws IOException
+  {
+    // Keep the part of the line that has been read
+    bufferOffset += lineStart;
+    buffer.limit(dataEnd).position(lineStart);
+    buffer.compact();
+    
+    // Make the buffer larger if the line fills it
+    if (!buffer.hasRemaining())
+    {
+      ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+      buffer.flip();
+      larger.put(buffer);
+      buffer = larger;
+      parser.setBuffer(buffer);
+    }
+    
+    // Read from the channel, or the file
+    final int count = ((channel != null) ? channel.read(buffer) : readFile());
+    if (count < 0)
+    {
+      eof = true;
+    }
+    
+    dataEnd = buffer.position();
+    lineStart = 0;
+  }
+  
+  
+  /**
+   * Open the file, read from the saved position into the rest
+   * of the buffer, and close the file.
+   * 
+   * @return the number of bytes read, or -1 at the end of the file
+   * @throws IOException an exception reading the file
+   */
+  private int readFile() throws IOException
+  {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try
+    {
+      final int count = raf.getChannel().read(buffer, readPosition);
+      if (count > 0)
+      {
+        readPosition += count;
+      }
+      
+      return count;
+    }
+    finally
+    {
+      raf.close();
+    }
+  }
+  
+  
+  /**
+   * Close the channel, if one is being read.
+   */
+  void close()
+  {
+    if (channel == null)
+    {
+      return;
+    }
+    
+    try
+    {
+      channel.close();
+    }
+    catch (IOException ioe)
+    {
+      // Nothing to do here
+      System.err.println("Exception closing the file: " + ioe.getMessage());
+    }
+  }
+}
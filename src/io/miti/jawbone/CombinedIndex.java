@@ -0,0 +1,208 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class combines the lemmas of all of the index files
+ * into one sorted list, with a trie over it, so a lemma (or
+ * the lemmas with a prefix) can be found for all parts of
+ * speech at once.  Each lemma in the list is mapped to its
+ * term ID in the table for each part of speech.
+ * 
+ * @author mwallace
+ */
+final class CombinedIndex
+{
+  /**
+   * The lemmas of all parts of speech, in the order of the
+   * index files, without duplicates.
+   */
+  private final String[] lemmas;
+  
+  /**
+   * The trie of the lemmas.
+   */
+  private final LemmaTrie trie;
+  
+  /**
+   * The term ID of each lemma in the table for each part
+   * of speech (or -1 if it's not in that table), indexed by
+   * the position of the part of speech in the list of files.
+   */
+  private final int[][] termIDs;
+  
+  
+  /**
+   * Constructor taking the table for each part of speech.
+   * 
+   * @param tables the tables, indexed by the position of the
+   *        part of speech in the list of files
+   */
+  CombinedIndex(final IndexTermTable[] tables)
+  {
+    // Merge the sorted lemmas of the tables
+    int total = 0;
+    for (int i = 0; i < tables.length; ++i)
+    {
+      total += tables[i].size();
+    }
+    
+    List<String> list = new ArrayList<String>(total);
+    int[][] ids = new int[tables.length][total];
+    int[] next = new int[tables.length];
+    while (true)
+    {
+      // Find the lowest lemma at the head of the tables
+      String lemma = null;
+      for (int i = 0; i < tables.length; ++i)
+      {
+        if ((next[i] < tables[i].size()) &&
+            ((lemma == null) ||
+             (Utility.compareLemmas(tables[i].getLemma(next[i]), lemma) < 0)))
+        {
+          lemma = tables[i].getLemma(next[i]);
+        }
+      }
+      
+      if (lemma == null)
+      {
+        break;
+      }
+      
+      // Save the lemma, and its ID in each table that has it
+      final int id = list.size();
+      list.add(lemma);
+      for (int i = 0; i < tables.length; ++i)
+      {
+        if ((next[i] < tables[i].size()) &&
+            (Utility.compareLemmas(tables[i].getLemma(next[i]), lemma) == 0))
+        {
+          ids[i][id] = next[i]++;
+        }
+        else
+        {
+          ids[i][id] = -1;
+        }
+      }
+    }
+    
+    // Save the arrays, without the unused entries
+    lemmas = list.toArray(new String[list.size()]);
+    termIDs = new int[tables.length][];
+    String[] keys = new String[lemmas.length];
+    for (int i = 0; i < tables.length; ++i)
+    {
+      termIDs[i] = Arrays.copyOf(ids[i], lemmas.length);
+    }
+    for (int i = 0; i < lemmas.length; ++i)
+    {
+      keys[i] = Utility.getIndexKey(lemmas[i]);
+    }
+    
+    trie = new LemmaTrie(keys);
+  }
+  
+  
+  /**
+   * Return the number of lemmas.
+   * 
+   * @return the number of lemmas
+   */
+  int size()
+  {
+    return lemmas.length;
+  }
+  
+  
+  /**
+   * Return the lemma at the specified position.
+   * 
+   * @param id the position of the lemma
+   * @return the lemma
+   */
+  String getLemma(final int id)
+  {
+    return lemmas[id];
+  }
+  
+  
+  /**
+   * Return the trie of the lemmas.
+   * 
+   * @return the trie
+   */
+  LemmaTrie getTrie()
+  {
+    return trie;
+  }
+  
+  
+  /**
+   * Return the term ID of a lemma in the table for a part of speech.
+   * 
+   * @param fileIndex the position of the part of speech in the list of files
+   * @param id the position of the lemma
+   * @return the term ID, or -1 if the lemma isn't in that table
+   */
+  int getTermID(final int fileIndex, final int id)
+  {
+    return termIDs[fileIndex][id];
+  }
+  
+  
+  /**
+   * Return the lemmas that start with a prefix, in sorted order.
+   * 
+   * @param prefix the prefix (with spaces or underscores)
+   * @param limit the maximum number of lemmas to return (-1 for no limit)
+   * @return the matching lemmas
+   */
+  List<String> complete(final String prefix, final int limit)
+  {
+    final int node = trie.findPrefix(Utility.getIndexKey(prefix));
+    if ((node < 0) || (limit == 0))
+    {
+      return new ArrayList<String>(0);
+    }
+    
+    // The lemmas under the node are a range of the list
+    int nEnd = trie.getEnd(node);
+    if (limit > 0)
+    {
+      nEnd = Math.min(nEnd, trie.getFirst(node) + limit);
+    }
+    
+    return new ArrayList<String>(
+                 Arrays.asList(lemmas).subList(trie.getFirst(node), nEnd));
+  }
+}
@@ -28,12 +28,15 @@
 
 package io.miti.jawbone;
 
+import io.miti.jawbone.filter.ExactMatchFilter;
 import io.miti.jawbone.filter.TermFilter;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class encapsulates the functionality needed to access
@@ -66,6 +69,98 @@ public final class Dictionary
    */
   private static boolean pathValid = false;
   
+  /**
+   * Whether to keep the index files in memory.
+   */
+  private static boolean useResidentIndex = false;
+  
+  /**
+   * Whether to use a binary search of the index files for
+   * exact and starts-with searches.
+   */
+  private static boolean useBinarySearch = true;
+  
+  /**
+   * Whether to map the data files into memory.
+   */
+  private static boolean useMappedDataFiles = true;
+  
+  /**
+   * Whether synsets read from a snapshot are views of their
+   * records in the snapshot.
+   */
+  private static boolean useSynsetViews = false;
+  
+  /**
+   * The name of the compiled snapshot of the data files, if any.
+   */
+  private static String snapshotFile = null;
+  
+  /**
+   * The maximum number of shared synsets to keep (0 to not
+   * share synsets).
+   */
+  private static int synsetCacheSize = 10000;
+  
+  /**
+   * Whether to find the sense number of each word when a
+   * synset is loaded.
+   */
+  private static boolean useEagerSenseNumbers = false;
+  
+  /**
+   * The in-memory copies of the index files, indexed by the
+   * position of the part of speech in the list of files.
+   */
+  private ResidentIndex[] residentIndexes =
+    new ResidentIndex[Utility.getFileCount()];
+  
+  /**
+   * The memory-mapped data files, indexed by the position of
+   * the part of speech in the list of files.
+   */
+  private MappedDataFile[] mappedDataFiles =
+    new MappedDataFile[Utility.getFileCount()];
+  
+  /**
+   * The compiled snapshot of the data files, if one is open.
+   */
+  private Snapshot snapshot = null;
+  
+  /**
+   * The shared synsets, created when the first one is requested.
+   */
+  private SynsetCache synsetCache = null;
+  
+  /**
+   * The sense numbers of the words in each synset, built when
+   * the first one is requested.
+   */
+  private SenseIndex senseIndex = null;
+  
+  /**
+   * The synset offset of each sense key, read from index.sense
+   * when the first sense key is looked up.
+   */
+  private SenseKeyIndex senseKeyIndex = null;
+  
+  /**
+   * Whether index.sense has been read.
+   */
+  private boolean senseKeyIndexLoaded = false;
+  
+  /**
+   * The lemmas of all parts of speech, built the first time
+   * they're needed.
+   */
+  private CombinedIndex combinedIndex = null;
+  
+  /**
+   * The index of the deletions of the lemmas, for spelling
+   * suggestions, built the first time it's needed.
+   */
+  private SpellingIndex spellingIndex = null;
+  
   
   /**
    * Default constructor. 
@@ -94,6 +189,407 @@ public final class Dictionary
     
     // The path has been validated
     pathChanged = false;
+    
+    // Discard any data loaded from the previous path
+    snapshotFile = null;
+    dict.reset();
+  }
+  
+  
+  /**
+   * Set the path to the WordNet data files, and open a snapshot
+   * of them compiled by SnapshotWriter.  The index terms and
+   * synsets are then read from the snapshot, which is mapped
+   * into memory.  If the snapshot can't be opened, or the data
+   * files have changed since it was compiled, it's ignored and
+   * the data files are used instead.
+   * 
+   * @param pathData the path to the data
+   * @param snapshotData the name of the snapshot file
+   */
+  public static void initialize(final String pathData,
+                                final String snapshotData)
+  {
+    // Set the path
+    initialize(pathData);
+    
+    // Open the snapshot
+    if (pathValid && (snapshotData != null))
+    {
+      dict.openSnapshot(snapshotData);
+    }
+  }
+  
+  
+  /**
+   * Return the name of the snapshot file in use, or null if
+   * the data files are read directly.
+   * 
+   * @return the name of the snapshot file
+   */
+  public static String getSnapshotFile()
+  {
+    return snapshotFile;
+  }
+  
+  
+  /**
+   * Set whether to keep the index files in memory.  If set,
+   * each index file is read once, the first time it's needed,
+   * and all searches after that use the copy in memory.
+   * 
+   * @param bUseResidentIndex whether to keep the index files in memory
+   */
+  public static void setUseResidentIndex(final boolean bUseResidentIndex)
+  {
+    useResidentIndex = bUseResidentIndex;
+  }
+  
+  
+  /**
+   * Return whether the index files are kept in memory.
+   * 
+   * @return whether the index files are kept in memory
+   */
+  public static boolean getUseResidentIndex()
+  {
+    return useResidentIndex;
+  }
+  
+  
+  /**
+   * Set whether exact and starts-with searches use a binary
+   * search of the index file, instead of reading the whole file.
+   * This relies on the index files being sorted by lemma, as
+   * they are in the WordNet distribution.  It is on by default.
+   * 
+   * @param bUseBinarySearch whether to use a binary search of the index files
+   */
+  public static void setUseBinarySearch(final boolean bUseBinarySearch)
+  {
+    useBinarySearch = bUseBinarySearch;
+  }
+  
+  
+  /**
+   * Return whether exact and starts-with searches use a binary
+   * search of the index file.
+   * 
+   * @return whether to use a binary search of the index files
+   */
+  public static boolean getUseBinarySearch()
+  {
+    return useBinarySearch;
+  }
+  
+  
+  /**
+   * Set whether synsets are read from memory-mapped copies of
+   * the data files.  If set, each data file is mapped once, the
+   * first time a synset is loaded from it, instead of opening
+   * the file for each synset.  It is on by default.
+   * 
+   * @param bUseMappedDataFiles whether to map the data files into memory
+   */
+  public static void setUseMappedDataFiles(final boolean bUseMappedDataFiles)
+  {
+    useMappedDataFiles = bUseMappedDataFiles;
+  }
+  
+  
+  /**
+   * Return whether synsets are read from memory-mapped copies
+   * of the data files.
+   * 
+   * @return whether to map the data files into memory
+   */
+  public static boolean getUseMappedDataFiles()
+  {
+    return useMappedDataFiles;
+  }
+  
+  
+  /**
+   * Set whether synsets read from a snapshot are views of their
+   * records in the snapshot.  If set, a synset doesn't keep
+   * copies of its words, pointers and gloss on the heap; each
+   * getter reads the field from the snapshot (which is mapped
+   * into memory, outside the heap) when it's called.  This
+   * only applies when a snapshot is open.
+   * 
+   * @param bUseSynsetViews whether synsets are views of the snapshot
+   */
+  public static void setUseSynsetViews(final boolean bUseSynsetViews)
+  {
+    useSynsetViews = bUseSynsetViews;
+  }
+  
+  
+  /**
+   * Return whether synsets read from a snapshot are views of
+   * their records in the snapshot.
+   * 
+   * @return whether synsets are views of the snapshot
+   */
+  public static boolean getUseSynsetViews()
+  {
+    return useSynsetViews;
+  }
+  
+  
+  /**
+   * Set the maximum number of synsets to share.  Every reference
+   * to a synset (from a pointer, an index term, or getSynset())
+   * returns the same Synset object, so each synset is only loaded
+   * once; when the limit is reached, the least recently used
+   * synset is no longer shared.  Set it to 0 to create a new
+   * Synset object for each reference.  The default is 10000.
+   * 
+   * @param nSynsetCacheSize the maximum number of synsets to share
+   */
+  public static void setSynsetCacheSize(final int nSynsetCacheSize)
+  {
+    synsetCacheSize = Math.max(0, nSynsetCacheSize);
+  }
+  
+  
+  /**
+   * Return the maximum number of synsets to share.
+   * 
+   * @return the maximum number of synsets to share
+   */
+  public static int getSynsetCacheSize()
+  {
+    return synsetCacheSize;
+  }
+  
+  
+  /**
+   * Set whether the sense number of each word in a synset is
+   * found when the synset is loaded, instead of when it's first
+   * requested.  The sense numbers come from an index that's
+   * built the first time it's needed, so this is practical
+   * when loading many synsets.  It is off by default.
+   * 
+   * @param bUseEagerSenseNumbers whether to find the sense numbers
+   *        when a synset is loaded
+   */
+  public static void setUseEagerSenseNumbers(final boolean bUseEagerSenseNumbers)
+  {
+    useEagerSenseNumbers = bUseEagerSenseNumbers;
+  }
+  
+  
+  /**
+   * Return whether the sense number of each word in a synset
+   * is found when the synset is loaded.
+   * 
+   * @return whether to find the sense numbers when a synset is loaded
+   */
+  public static boolean getUseEagerSenseNumbers()
+  {
+    return useEagerSenseNumbers;
+  }
+  
+  
+  /**
+   * Discard the data loaded from the data files.
+   */
+  private synchronized void reset()
+  {
+    residentIndexes = new ResidentIndex[Utility.getFileCount()];
+    mappedDataFiles = new MappedDataFile[Utility.getFileCount()];
+    snapshot = null;
+    synsetCache = null;
+    senseIndex = null;
+    senseKeyIndex = null;
+    senseKeyIndexLoaded = false;
+    combinedIndex = null;
+    spellingIndex = null;
+  }
+  
+  
+  /**
+   * Return the sense numbers of the words in each synset,
+   * building the index if necessary.
+   * 
+   * @return the sense index
+   */
+  synchronized SenseIndex getSenseIndex()
+  {
+    if (senseIndex == null)
+    {
+      senseIndex = SenseIndex.load(path);
+    }
+    
+    return senseIndex;
+  }
+  
+  
+  /**
+   * Return the shared synsets, creating the cache if it doesn't
+   * exist or its size has changed.
+   * 
+   * @return the shared synsets, or null if synsets aren't shared
+   */
+  private synchronized SynsetCache getSynsetCache()
+  {
+    if (synsetCacheSize < 1)
+    {
+      synsetCache = null;
+    }
+    else if ((synsetCache == null) ||
+             (synsetCache.getMaxSize() != synsetCacheSize))
+    {
+      synsetCache = new SynsetCache(synsetCacheSize);
+    }
+    
+    return synsetCache;
+  }
+  
+  
+  /**
+   * Open the snapshot of the data files.
+   * 
+   * @param snapshotData the name of the snapshot file
+   */
+  private synchronized void openSnapshot(final String snapshotData)
+  {
+    snapshot = Snapshot.open(snapshotData, path);
+    if (snapshot != null)
+    {
+      snapshotFile = snapshotData;
+    }
+  }
+  
+  
+  /**
+   * Return the snapshot of the data files, or null if one
+   * is not open.
+   * 
+   * @return the snapshot of the data files
+   */
+  synchronized Snapshot getSnapshot()
+  {
+    return snapshot;
+  }
+  
+  
+  /**
+   * Return the table of index terms for the part of speech,
+   * from the snapshot if one is open, or else the in-memory
+   * copy of the index file if that's enabled.
+   * 
+   * @param pos the part of speech
+   * @return the table of index terms, or null if the index
+   *         file should be searched
+   */
+  synchronized IndexTermTable getIndexTable(final PartOfSpeech pos)
+  {
+    if (snapshot != null)
+    {
+      return snapshot.getIndex(pos);
+    }
+    else if (useResidentIndex)
+    {
+      return getResidentIndex(pos);
+    }
+    
+    return null;
+  }
+  
+  
+  /**
+   * Return the table of index terms for the part of speech,
+   * for the searches that need one.  This is the snapshot if
+   * one is open, or else the in-memory copy of the index file,
+   * which is loaded if necessary (even if the resident index
+   * is not enabled for other searches).
+   * 
+   * @param pos the part of speech
+   * @return the table of index terms
+   */
+  synchronized IndexTermTable getLemmaTable(final PartOfSpeech pos)
+  {
+    return ((snapshot != null) ? snapshot.getIndex(pos) : getResidentIndex(pos));
+  }
+  
+  
+  /**
+   * Return the combined lemmas of all parts of speech, building
+   * them if necessary.
+   * 
+   * @return the combined lemmas
+   */
+  synchronized CombinedIndex getCombinedIndex()
+  {
+    if (combinedIndex == null)
+    {
+      combinedIndex = new CombinedIndex(getLemmaTables());
+    }
+    
+    return combinedIndex;
+  }
+  
+  
+  /**
+   * Return the index of the deletions of the lemmas of all
+   * parts of speech, building it if necessary.
+   * 
+   * @return the spelling index
+   */
+  synchronized SpellingIndex getSpellingIndex()
+  {
+    if (spellingIndex == null)
+    {
+      spellingIndex = new SpellingIndex(getCombinedIndex(), getLemmaTables());
+    }
+    
+    return spellingIndex;
+  }
+  
+  
+  /**
+   * Return the table of index terms for each part of speech.
+   * 
+   * @return the tables, indexed by the position of the part of
+   *         speech in the list of files
+   */
+  private synchronized IndexTermTable[] getLemmaTables()
+  {
+    IndexTermTable[] tables = new IndexTermTable[Utility.getFileCount()];
+    for (int i = 0; i < tables.length; ++i)
+    {
+      tables[i] = getLemmaTable(Utility.getFilePartOfSpeech(i));
+    }
+    
+    return tables;
+  }
+  
+  
+  /**
+   * Return the in-memory copy of the index file for the
+   * part of speech, loading it if necessary.
+   * 
+   * @param pos the part of speech
+   * @return the in-memory copy of the index file
+   */
+  private synchronized ResidentIndex getResidentIndex(final PartOfSpeech pos)
+  {
+    // Check the input parameter
+    if (pos == null)
+    {
+      throw new RuntimeException("The part of speech is null");
+    }
+    
+    // Load the index file, if it hasn't been loaded yet
+    final int index = Utility.getFileIndex(pos);
+    if (residentIndexes[index] == null)
+    {
+      residentIndexes[index] = ResidentIndex.load(pos);
+    }
+    
+    return residentIndexes[index];
   }
   
   
@@ -171,6 +667,26 @@ public final class Dictionary
   }
   
   
+  /**
+   * Return the memory-mapped data file for the part of speech,
+   * mapping it if necessary.
+   * 
+   * @param pos the part of speech
+   * @return the mapped data file, or null if it could not be mapped
+   */
+  synchronized MappedDataFile getMappedDataFile(final PartOfSpeech pos)
+  {
+    // Map the data file, if it hasn't been mapped yet
+    final int index = Utility.getFileIndex(pos);
+    if (mappedDataFiles[index] == null)
+    {
+      mappedDataFiles[index] = MappedDataFile.load(pos);
+    }
+    
+    return mappedDataFiles[index];
+  }
+  
+  
   /**
    * Get an iterator to terms of the specified part of speech.
    * 
@@ -201,6 +717,8 @@ public final class Dictionary
   
   /**
    * Get an iterator to terms of the specified part of speech.
+   * The terms are found as the iterator is read; see
+   * getIndexTermCursor() for details.
    * 
    * @param pos the part of speech
    * @param maxLimit the maximum number of results to return
@@ -210,17 +728,41 @@ public final class Dictionary
   public Iterator<IndexTerm> getIndexTermIterator(final PartOfSpeech pos,
                                                   final int maxLimit,
                                                   final TermFilter filter)
+  {
+    return getIndexTermCursor(pos, maxLimit, filter);
+  }
+  
+  
+  /**
+   * Get a cursor over the terms of the specified part of speech
+   * that match the filter.  Each term is parsed from the index
+   * file (or found in the copy in memory) when it's requested,
+   * and the search stops when the caller stops reading.  The
+   * index file is only opened while a block of its lines is
+   * read, so the cursor can be dropped without closing it.
+   * 
+   * @param pos the part of speech
+   * @param maxLimit the maximum number of results to return (-1 for no limit)
+   * @param filter the filter to apply to the search results (null for no filter)
+   * @return a cursor over the matching terms
+   */
+  public IndexTermCursor getIndexTermCursor(final PartOfSpeech pos,
+                                            final int maxLimit,
+                                            final TermFilter filter)
   {
     if (!pathIsValid())
     {
       throw new RuntimeException("The data path is either not set or is invalid");
     }
     
-    // Parse the file and save the contents
-    List<IndexTerm> listData = ParseIndexFile.parseFile(pos, maxLimit, filter);
+    // Search the index file, or its copy in memory
+    IndexTermTable table = getIndexTable(pos);
+    if (table != null)
+    {
+      return table.cursor(maxLimit, filter);
+    }
     
-    // Return an iterator to the list
-    return listData.iterator();
+    return ParseIndexFile.openFile(pos, maxLimit, filter);
   }
   
   
@@ -237,7 +779,9 @@ public final class Dictionary
   
   
   /**
-   * Get an iterator to terms for all parts of speech.
+   * Get an iterator to terms for all parts of speech.  The terms
+   * are in the order of the index files, and terms with the same
+   * lemma are in the order adjective, adverb, noun and verb.
    * 
    * @param maxLimit the maximum number of results to return (-1 for no limit)
    * @param filter a filter for the search results (null for no filter)
@@ -245,42 +789,220 @@ public final class Dictionary
    */
   public Iterator<IndexTerm> getIndexTermIterator(final int maxLimit,
                                                   final TermFilter filter)
+  {
+    return getIndexTermCursor(maxLimit, filter);
+  }
+  
+  
+  /**
+   * Get a cursor over the terms for all parts of speech that
+   * match the filter.  The index files are searched at the same
+   * time, and since each one is sorted, their terms are merged
+   * as they're found, so the search stops after maxLimit terms.
+   * Close the cursor if it isn't read to the end.
+   * 
+   * @param maxLimit the maximum number of results to return (-1 for no limit)
+   * @param filter a filter for the search results (null for no filter)
+   * @return a cursor over the search results
+   */
+  public IndexTermCursor getIndexTermCursor(final int maxLimit,
+                                            final TermFilter filter)
   {
     // Declare a list of all parts of speech
     PartOfSpeech[] pos = {PartOfSpeech.ADJECTIVE, PartOfSpeech.ADVERB,
                           PartOfSpeech.NOUN, PartOfSpeech.VERB};
     
-    // Compute the maximum number of elements
-    final int maxSize = (maxLimit > 0) ? (maxLimit * 4) : 100;
+    // Get the cursor for each part of speech; none of them
+    // can contribute more than maxLimit terms
+    IndexTermCursor[] cursors = new IndexTermCursor[pos.length];
+    for (int i = 0; i < pos.length; ++i)
+    {
+      cursors[i] = getIndexTermCursor(pos[i], maxLimit, filter);
+    }
+    
+    // Merge the results
+    return new MergedTermCursor(cursors, maxLimit);
+  }
+  
+  
+  /**
+   * Return a stream of the terms of the specified part of speech.
+   * 
+   * @param pos the part of speech
+   * @return a stream of the terms
+   */
+  public Stream<IndexTerm> indexTerms(final PartOfSpeech pos)
+  {
+    return indexTerms(pos, null);
+  }
+  
+  
+  /**
+   * Return a stream of the terms of the specified part of speech
+   * that match the filter, in the order of the index file.  The
+   * stream can be made parallel, in which case the index file
+   * (or its copy in memory) is split into ranges of lines that
+   * are searched at the same time, so the filter must be safe
+   * to use from several threads (the filters in the filter
+   * package are).  If the stream is not read to the end, close
+   * it to release the index file.
+   * 
+   * @param pos the part of speech
+   * @param filter the filter to apply to the search results (null for no filter)
+   * @return a stream of the matching terms
+   */
+  public Stream<IndexTerm> indexTerms(final PartOfSpeech pos,
+                                      final TermFilter filter)
+  {
+    if (!pathIsValid())
+    {
+      throw new RuntimeException("The data path is either not set or is invalid");
+    }
     
-    // Declare the array that will hold all of the results
-    List<IndexTerm> terms = new ArrayList<IndexTerm>(maxSize);
+    // Search the copy in memory, if there is one
+    IndexTermTable table = getIndexTable(pos);
+    if (table != null)
+    {
+      return StreamSupport.stream(table.spliterator(filter), false);
+    }
     
-    // Iterate over the parts of speech
-    for (int i = 0; i < pos.length; ++i)
+    // Search the index file, and close it when the stream is closed
+    final IndexFileSpliterator split = ParseIndexFile.splitFile(pos, filter);
+    return StreamSupport.stream(split, false).onClose(new Runnable()
     {
-      // Get the iterator for the current POS
-      Iterator<IndexTerm> iter = getIndexTermIterator(pos[i], maxLimit, filter);
-      
-      // Add all of the elements to the output array
-      while (iter.hasNext())
+      public void run()
       {
-        terms.add(iter.next());
+        split.close();
       }
+    });
+  }
+  
+  
+  /**
+   * Return a stream of the terms for all parts of speech.
+   * 
+   * @return a stream of the terms
+   */
+  public Stream<IndexTerm> indexTerms()
+  {
+    return indexTerms((TermFilter) null);
+  }
+  
+  
+  /**
+   * Return a stream of the terms for all parts of speech that
+   * match the filter.  The terms are grouped by part of speech
+   * (adjective, adverb, noun and verb), and each group is in
+   * the order of its index file.  See indexTerms(PartOfSpeech,
+   * TermFilter) for details.
+   * 
+   * @param filter the filter to apply to the search results (null for no filter)
+   * @return a stream of the matching terms
+   */
+  public Stream<IndexTerm> indexTerms(final TermFilter filter)
+  {
+    // Declare a list of all parts of speech
+    PartOfSpeech[] pos = {PartOfSpeech.ADJECTIVE, PartOfSpeech.ADVERB,
+                          PartOfSpeech.NOUN, PartOfSpeech.VERB};
+    
+    // Join the streams for each part of speech
+    Stream<IndexTerm> terms = indexTerms(pos[0], filter);
+    for (int i = 1; i < pos.length; ++i)
+    {
+      terms = Stream.concat(terms, indexTerms(pos[i], filter));
+    }
+    
+    return terms;
+  }
+  
+  
+  /**
+   * Return the lemmas (of any part of speech) that start with
+   * a prefix, in the order of the index files.  The lemmas are
+   * found with a trie, which is built from the snapshot (or the
+   * index files, which are then kept in memory) the first time
+   * this is called, so each call after that only walks the
+   * characters of the prefix.
+   * 
+   * @param prefix the prefix (this is not case-sensitive)
+   * @param limit the maximum number of lemmas to return (-1 for no limit)
+   * @return the matching lemmas
+   */
+  public List<String> complete(final String prefix, final int limit)
+  {
+    if (!pathIsValid())
+    {
+      throw new RuntimeException("The data path is either not set or is invalid");
+    }
+    else if (prefix == null)
+    {
+      return new ArrayList<String>(0);
+    }
+    
+    return getCombinedIndex().complete(prefix.toLowerCase(), limit);
+  }
+  
+  
+  /**
+   * Return the lemmas (of any part of speech) that are within
+   * a maximum Levenshtein distance of a word, such as spelling
+   * corrections for a misspelled word.  The closest lemmas come
+   * first, and lemmas at the same distance are sorted by their
+   * tag sense counts (over all parts of speech), highest first.
+   * For distances up to 2, the lemmas are found in an index of
+   * the strings made by deleting characters from each lemma,
+   * which is built from the snapshot (or the index files, which
+   * are then kept in memory) the first time this is called.
+   * 
+   * @param word the word (this is not case-sensitive)
+   * @param maxDistance the maximum distance of a suggestion
+   * @param limit the maximum number of lemmas to return (-1 for no limit)
+   * @return the suggested lemmas
+   */
+  public List<String> suggest(final String word,
+                              final int maxDistance,
+                              final int limit)
+  {
+    if (!pathIsValid())
+    {
+      throw new RuntimeException("The data path is either not set or is invalid");
+    }
+    else if (word == null)
+    {
+      return new ArrayList<String>(0);
     }
     
-    // Sort the list
-    java.util.Collections.sort(terms);
+    return getSpellingIndex().suggest(word.toLowerCase(), maxDistance, limit);
+  }
+  
+  
+  /**
+   * Return the term with the specified lemma and part of speech.
+   * If a snapshot is open or the index files are kept in memory,
+   * this is a binary search; otherwise, the index file is searched.
+   * 
+   * @param lemma the lemma to find (this is case-sensitive)
+   * @param pos the part of speech
+   * @return the matching term, or null if it's not found
+   */
+  public IndexTerm lookup(final String lemma, final PartOfSpeech pos)
+  {
+    if (!pathIsValid())
+    {
+      throw new RuntimeException("The data path is either not set or is invalid");
+    }
     
-    // See if the size is larger than wanted
-    if (terms.size() > maxLimit)
+    // Use the copy in memory if it's available
+    IndexTermTable table = getIndexTable(pos);
+    if (table != null)
     {
-      // It is, so return an iterator for the sublist
-      return terms.subList(0, maxLimit).iterator();
+      return table.lookup(lemma);
     }
     
-    // Return the iterator
-    return terms.iterator();
+    // Search the index file for the term
+    List<IndexTerm> terms = ParseIndexFile.parseFile(pos, 1,
+                                new ExactMatchFilter(lemma, false));
+    return (terms.isEmpty() ? null : terms.get(0));
   }
   
   
@@ -314,10 +1036,92 @@ public final class Dictionary
    */
   public Synset getSynset(final long offset, final PartOfSpeech pos)
   {
+    // Return the shared synset, if synsets are shared
+    SynsetCache cache = getSynsetCache();
+    if (cache != null)
+    {
+      return cache.get(offset, pos);
+    }
+    
     return new Synset(offset, pos);
   }
   
   
+  /**
+   * Return the synset identified by a WordNet sense key (e.g.,
+   * "dog%1:05:00::").  If index.sense is in the data directory,
+   * it's read into memory the first time this is called, and
+   * each key is found with one hash lookup.  Otherwise, the
+   * synsets of the lemma are checked for a word with the
+   * same sense key.
+   * 
+   * @param senseKey the sense key
+   * @return the synset, or null if the sense key is not found
+   */
+  public Synset getSynsetBySenseKey(final String senseKey)
+  {
+    if (!pathIsValid())
+    {
+      throw new RuntimeException("The data path is either not set or is invalid");
+    }
+    
+    // Check the part of speech in the key
+    final String key = ((senseKey == null) ? null : senseKey.toLowerCase());
+    final PartOfSpeech pos = ((key == null) ? null
+                                : SenseKeyIndex.getPartOfSpeech(key));
+    if (pos == null)
+    {
+      return null;
+    }
+    
+    // Look up the key in index.sense, if it's available
+    SenseKeyIndex index = getSenseKeyIndex();
+    if (index != null)
+    {
+      final long offset = index.getOffset(key);
+      return ((offset < 0L) ? null : getSynset(offset, pos));
+    }
+    
+    // Check the sense key of the lemma in each of its synsets
+    IndexTerm term = lookup(SenseKeyIndex.getLemma(key), pos);
+    Synset[] synsets = ((term == null) ? null : term.getSynsets());
+    if (synsets != null)
+    {
+      for (Synset synset : synsets)
+      {
+        List<WordData> words = synset.getWord();
+        for (int i = 0; (words != null) && (i < words.size()); ++i)
+        {
+          if (key.equals(words.get(i).getSenseKey()))
+          {
+            return synset;
+          }
+        }
+      }
+    }
+    
+    return null;
+  }
+  
+  
+  /**
+   * Return the index of the sense keys in index.sense, reading
+   * the file if necessary.
+   * 
+   * @return the sense key index, or null if there's no index.sense
+   */
+  private synchronized SenseKeyIndex getSenseKeyIndex()
+  {
+    if (!senseKeyIndexLoaded)
+    {
+      senseKeyIndex = SenseKeyIndex.load(path);
+      senseKeyIndexLoaded = true;
+    }
+    
+    return senseKeyIndex;
+  }
+  
+  
   /**
    * Convenience method for getting a synset directly using the 9-digit ID.
    * (Added by LLT on April 24)
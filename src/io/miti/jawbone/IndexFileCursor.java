@@ -0,0 +1,232 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.TermFilter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * This class is a cursor over the terms in a WordNet index
+ * file (e.g., index.noun) that match a filter.  Each line is
+ * read and parsed when the next term is requested.  If the
+ * filter can use the sort order of the file, the reading
+ * starts at the first line that could match (found with a
+ * binary search), and stops after the last one.  The file
+ * is only open while a block of lines is read from it, so a
+ * cursor that isn't read to the end doesn't hold it open.
+ * 
+ * @author mwallace
+ */
+final class IndexFileCursor extends IndexTermCursor
+{
+  /**
+   * The initial size of the buffer for a search that only
+   * reads the lines in the range found by a binary search.
+   */
+  private static final int SEARCH_BUFFER_SIZE = 8 * 1024;
+  
+  /**
+   * The filter to apply to the terms.
+   */
+  private final TermFilter filter;
+  
+  /**
+   * The check of the lemmas before the filter (null for none).
+   */
+  private final LemmaCheck check;
+  
+  /**
+   * The lemma (or prefix) found with the binary search, or
+   * null if the whole file is read.
+   */
+  private String key = null;
+  
+  /**
+   * The reader for the lines of the file.
+   */
+  private ChannelLineReader reader = null;
+  
+  
+  /**
+   * Find the first line in the index file that could match.
+   * 
+   * @param file the index file
+   * @param nMaxLimit the maximum number of terms to return (-1 for no limit)
+   * @param termFilter the filter to apply to the terms (null for no filter)
+   * @param useBinarySearch whether to use a binary search for the first line
+   */
+  IndexFileCursor(final File file,
+                  final int nMaxLimit,
+                  final TermFilter termFilter,
+                  final boolean useBinarySearch)
+  {
+    super(nMaxLimit);
+    filter = termFilter;
+    check = LemmaCheck.create(filter);
+    if (nMaxLimit == 0)
+    {
+      return;
+    }
+    
+    RandomAccessFile raf = null;
+    try
+    {
+      // Find the first line that could match, if the filter allows it
+      if (useBinarySearch)
+      {
+        key = IndexFileSearch.getSearchKey(filter);
+      }
+      
+      if (key == null)
+      {
+        if (!file.isFile())
+        {
+          throw new FileNotFoundException(file.getPath());
+        }
+        
+        reader = new ChannelLineReader(file, 0L, ChannelLineReader.BUFFER_SIZE);
+      }
+      else
+      {
+        raf = new RandomAccessFile(file, "r");
+        reader = new ChannelLineReader(file, IndexFileSearch.findFirst(raf, key),
+                                       SEARCH_BUFFER_SIZE);
+      }
+    }
+    catch (FileNotFoundException fnfe)
+    {
+      // Write an error message
+      writeErr("File Not Found: " + fnfe.getMessage());
+    }
+    catch (IOException ioe)
+    {
+      // Write an error message
+      writeErr("Exception reading: " + ioe.getMessage());
+    }
+    finally
+    {
+      if (raf != null)
+      {
+        try
+        {
+          raf.close();
+          raf = null;
+        }
+        catch (Exception e)
+        {
+          // Nothing to do here
+          raf = null;
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * Simple method to write a message to standard error.
+   * 
+   * @param msg the string to write out
+   */
+  private static void writeErr(final String msg)
+  {
+    System.err.println(msg);
+  }
+  
+  
+  /**
+   * Read lines until one matches the filter.
+   * 
+   * @return the next matching term, or null if there are no more
+   */
+  @Override
+  IndexTerm fetch()
+  {
+    if (reader == null)
+    {
+      return null;
+    }
+    
+    try
+    {
+      while (reader.nextLine())
+      {
+        // Check if we should process this line
+        final ByteLineParser parser = reader.getParser();
+        if ((parser.isEmpty()) || (parser.peek() == ' '))
+        {
+          continue;
+        }
+        
+        // Stop when we're past the lemmas that could match
+        final CharSequence lemma = parser.nextLemmaChars();
+        if ((key != null) &&
+            (!IndexFileSearch.inSearchRange(lemma, key, filter)))
+        {
+          break;
+        }
+        
+        // Check the characters of the lemma before making a string
+        if ((check != null) && (!check.mayMatch(lemma)))
+        {
+          continue;
+        }
+        
+        // Parse the line, if it passes the filter
+        IndexTerm data = ParseIndexFile.process(parser, lemma.toString(),
+                                                filter);
+        if (data != null)
+        {
+          return data;
+        }
+      }
+    }
+    catch (IOException ioe)
+    {
+      // Write an error message
+      writeErr("Exception reading: " + ioe.getMessage());
+    }
+    
+    return null;
+  }
+  
+  
+  /**
+   * Stop reading the index file.  The file isn't held open
+   * between reads, so there's nothing to close.
+   */
+  @Override
+  void release()
+  {
+    reader = null;
+  }
+}
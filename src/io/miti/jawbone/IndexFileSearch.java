@@ -0,0 +1,334 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.ExactMatchFilter;
+import io.miti.jawbone.filter.RegexFilter;
+import io.miti.jawbone.filter.StartsWithFilter;
+import io.miti.jawbone.filter.TermFilter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * This class searches a WordNet index file (e.g., index.noun)
+ * without reading all of it.  The index files are sorted by
+ * lemma, so the start of the matching lines is found with a
+ * binary search on the byte offsets in the file, and only the
+ * matching lines are read after that (by IndexFileCursor).
+ * This is used for exact and starts-with searches, and for
+ * regular expressions that have a literal prefix.
+ * 
+ * @author mwallace
+ */
+final class IndexFileSearch
+{
+  /**
+   * The size of the buffer used while searching.
+   */
+  private static final int BUFFER_SIZE = 1024;
+  
+  /**
+   * The file being searched.
+   */
+  private final RandomAccessFile file;
+  
+  /**
+   * The length of the file.
+   */
+  private final long length;
+  
+  /**
+   * The buffer holding the most recently read part of the file.
+   */
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  
+  /**
+   * The offset in the file of the start of the buffer.
+   */
+  private long bufferStart = 0L;
+  
+  /**
+   * The number of bytes in the buffer.
+   */
+  private int bufferLength = 0;
+  
+  
+  /**
+   * Constructor taking the file to search.
+   * 
+   * @param raf the file to search
+   * @throws IOException an exception getting the length of the file
+   */
+  private IndexFileSearch(final RandomAccessFile raf) throws IOException
+  {
+    file = raf;
+    length = raf.length();
+  }
+  
+  
+  /**
+   * Return the lemma (or prefix) that the filter searches for,
+   * if the filter is one that can use the sort order of the
+   * index files.  For a regular expression, this is the literal
+   * prefix of every match, if it has one.  If the filter ignores
+   * case, the lower-case form is returned, since the lemmas in
+   * the index files are all lower case.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the search key, or null if the filter can't use the sort order
+   */
+  static String getSearchKey(final TermFilter filter)
+  {
+    // Get the term and case-sensitivity from the filter
+    String term = null;
+    boolean ignoreCase = false;
+    if (filter instanceof ExactMatchFilter)
+    {
+      term = ((ExactMatchFilter) filter).getTerm();
+      ignoreCase = ((ExactMatchFilter) filter).isIgnoreCase();
+    }
+    else if (filter instanceof StartsWithFilter)
+    {
+      term = ((StartsWithFilter) filter).getTerm();
+      ignoreCase = ((StartsWithFilter) filter).isIgnoreCase();
+    }
+    else if (filter instanceof RegexFilter)
+    {
+      term = ((RegexFilter) filter).getPrefix();
+      ignoreCase = ((RegexFilter) filter).isIgnoreCase();
+    }
+    
+    // An empty prefix matches everything, so it can't narrow the search
+    if ((term == null) || (term.length() < 1))
+    {
+      return null;
+    }
+    
+    return ((ignoreCase) ? term.toLowerCase() : term);
+  }
+  
+  
+  /**
+   * Return whether a lemma is in the range of lemmas that the
+   * filter could accept, given the search key for the filter.
+   * The lemmas in the range are contiguous in the index files.
+   * 
+   * @param lemma the lemma to check
+   * @param key the search key for the filter
+   * @param filter the filter to apply to the search results
+   * @return whether the lemma is in the range for the filter
+   */
+  static boolean inSearchRange(final CharSequence lemma,
+                               final String key,
+                               final TermFilter filter)
+  {
+    if (filter instanceof ExactMatchFilter)
+    {
+      return (Utility.compareLemmas(lemma, key) == 0);
+    }
+    
+    return (Utility.lemmaStartsWith(lemma, key));
+  }
+  
+  
+  /**
+   * Return the offset of the first line in the index file with
+   * a lemma greater than or equal to the search key.
+   * 
+   * @param raf the index file
+   * @param key the search key
+   * @return the offset of the first line that could match
+   * @throws IOException an exception reading the file
+   */
+  static long findFirst(final RandomAccessFile raf,
+                        final String key) throws IOException
+  {
+    return new IndexFileSearch(raf).findFirst(key);
+  }
+  
+  
+  /**
+   * Return the byte at the specified offset in the file.
+   * 
+   * @param offset the offset in the file
+   * @return the byte at the offset, or -1 if it's past the end of the file
+   * @throws IOException an exception reading the file
+   */
+  private int byteAt(final long offset) throws IOException
+  {
+    // Check if the offset is in the buffer
+    if ((offset < bufferStart) || (offset >= (bufferStart + bufferLength)))
+    {
+      // It's not, so read the part of the file starting at the offset
+      if (offset >= length)
+      {
+        return -1;
+      }
+      
+      file.seek(offset);
+      bufferStart = offset;
+      bufferLength = Math.max(0, file.read(buffer, 0, BUFFER_SIZE));
+      if (bufferLength < 1)
+      {
+        return -1;
+      }
+    }
+    
+    return (buffer[(int) (offset - bufferStart)] & 0xFF);
+  }
+  
+  
+  /**
+   * Return the offset of the first line that starts at or
+   * after the specified offset.
+   * 
+   * @param offset the offset in the file
+   * @return the offset of the start of the line, or the length
+   *         of the file if there are no more lines
+   */
+  private long nextLineStart(final long offset) throws IOException
+  {
+    // The file starts with a line
+    if (offset <= 0L)
+    {
+      return 0L;
+    }
+    
+    // Find the end of the line that includes the previous byte
+    long pos = offset - 1;
+    while (pos < length)
+    {
+      if (byteAt(pos) == '\n')
+      {
+        return (pos + 1);
+      }
+      
+      ++pos;
+    }
+    
+    return length;
+  }
+  
+  
+  /**
+   * Compare the lemma on the line starting at the offset with
+   * the search key.  The license lines at the start of the file
+   * start with a space, and are considered less than any key.
+   * 
+   * @param lineStart the offset of the start of the line
+   * @param key the search key
+   * @return the result of the comparison
+   */
+  private int compareLine(final long lineStart, final String key)
+    throws IOException
+  {
+    // Check for a license line
+    if (byteAt(lineStart) == ' ')
+    {
+      return -1;
+    }
+    
+    // Compare the characters in the lemma with the key
+    final int nLen = key.length();
+    for (int i = 0; ; ++i)
+    {
+      // Check if this is the end of the lemma
+      final int ch = byteAt(lineStart + i);
+      final boolean bEnd = ((ch < 0) || (ch == ' ') ||
+                            (ch == '\n') || (ch == '\r'));
+      if (i == nLen)
+      {
+        return ((bEnd) ? 0 : 1);
+      }
+      else if (bEnd)
+      {
+        return -1;
+      }
+      
+      // Compare the current characters (spaces are underscores in the file)
+      char keyChar = key.charAt(i);
+      if (keyChar == ' ')
+      {
+        keyChar = '_';
+      }
+      
+      if (ch != keyChar)
+      {
+        return (ch - keyChar);
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the offset of the first line with a lemma greater
+   * than or equal to the search key.
+   * 
+   * @param key the search key
+   * @return the offset of the first line that could match
+   * @throws IOException an exception reading the file
+   */
+  private long findFirst(final String key) throws IOException
+  {
+    // The first matching line is always between low and high,
+    // which are both the start of a line
+    long low = 0L;
+    long high = length;
+    while (low < high)
+    {
+      // Find the first line starting after the middle of the range
+      final long mid = (low + high) >>> 1;
+      final long lineStart = nextLineStart(mid);
+      if (lineStart >= high)
+      {
+        // No line starts in the second half of the range, so
+        // check the lines in the first half in order
+        while ((low < high) && (compareLine(low, key) < 0))
+        {
+          low = nextLineStart(low + 1);
+        }
+        
+        break;
+      }
+      
+      // Narrow the range
+      if (compareLine(lineStart, key) < 0)
+      {
+        low = nextLineStart(lineStart + 1);
+      }
+      else
+      {
+        high = lineStart;
+      }
+    }
+    
+    return low;
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.TermFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class is a Spliterator over the terms in a WordNet index
+ * file (e.g., index.noun) that match a filter, so the file can
+ * be searched with a parallel stream.  Each spliterator covers
+ * a range of bytes in the file, and returns the terms on the
+ * lines that start in that range.  A range is split in half at
+ * any byte, without reading the file; the reader for the second
+ * half skips the partial line at its start, since that line
+ * belongs to the first half.  Each range opens its own channel
+ * the first time it's read, and closes it at the end of the range.
+ * 
+ * @author mwallace
+ */
+final class IndexFileSpliterator implements Spliterator<IndexTerm>
+{
+  /**
+   * Ranges smaller than this (in bytes) are not split.
+   */
+  private static final long MIN_SPLIT_SIZE = 16L * 1024L;
+  
+  /**
+   * The approximate length of a line in an index file, used
+   * to estimate the number of terms in a range.
+   */
+  private static final int AVERAGE_LINE_LENGTH = 40;
+  
+  /**
+   * The index file.
+   */
+  private final File file;
+  
+  /**
+   * The filter to apply to the terms.
+   */
+  private final TermFilter filter;
+  
+  /**
+   * The check of the lemmas before the filter (null for none).
+   */
+  private final LemmaCheck check;
+  
+  /**
+   * The lemma (or prefix) found with the binary search, or
+   * null if the whole file is read.
+   */
+  private final String key;
+  
+  /**
+   * The readers that are open for this spliterator and the
+   * ones split from it, so they can all be closed early.
+   */
+  private final Queue<ChannelLineReader> openReaders;
+  
+  /**
+   * The position of the start of the range.
+   */
+  private long start;
+  
+  /**
+   * The position of the end of the range (exclusive).
+   */
+  private long end;
+  
+  /**
+   * The reader for the range, once it has been opened.
+   */
+  private ChannelLineReader reader = null;
+  
+  /**
+   * Whether the end of the range has been reached.
+   */
+  private boolean done = false;
+  
+  
+  /**
+   * Constructor for a spliterator over the part of the index
+   * file that could match the filter.
+   * 
+   * @param inputFile the index file
+   * @param termFilter the filter to apply to the terms (null for no filter)
+   * @param useBinarySearch whether to use a binary search for the first line
+   */
+  IndexFileSpliterator(final File inputFile,
+                       final TermFilter termFilter,
+                       final boolean useBinarySearch)
+  {
+    file = inputFile;
+    filter = termFilter;
+    check = LemmaCheck.create(filter);
+    key = ((useBinarySearch) ? IndexFileSearch.getSearchKey(filter) : null);
+    openReaders = new ConcurrentLinkedQueue<ChannelLineReader>();
+    start = 0L;
+    end = file.length();
+    
+    // Start at the first line that could match, if the filter allows it
+    if (key != null)
+    {
+      RandomAccessFile raf = null;
+      try
+      {
+        raf = new RandomAccessFile(file, "r");
+        start = IndexFileSearch.findFirst(raf, key);
+      }
+      catch (IOException ioe)
+      {
+        // Write an error message
+        writeErr("Exception reading: " + ioe.getMessage());
+        done = true;
+      }
+      finally
+      {
+        if (raf != null)
+        {
+          try
+          {
+            raf.close();
+            raf = null;
+          }
+          catch (Exception e)
+          {
+            // Nothing to do here
+            raf = null;
+          }
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * Constructor for a spliterator over the first part of
+   * the range of another one.
+   * 
+   * @param parent the spliterator being split
+   * @param nEnd the end of the new range
+   */
+  private IndexFileSpliterator(final IndexFileSpliterator parent,
+                               final long nEnd)
+  {
+    file = parent.file;
+    filter = parent.filter;
+    check = parent.check;
+    key = parent.key;
+    openReaders = parent.openReaders;
+    start = parent.start;
+    end = nEnd;
+  }
+  
+  
+  /**
+   * Simple method to write a message to standard error.
+   * 
+   * @param msg the string to write out
+   */
+  private static void writeErr(final String msg)
+  {
+    System.err.println(msg);
+  }
+  
+  
+  /**
+   * Open the reader for the range, positioned at the start of
+   * the first line in the range.
+   * 
+   * @throws IOException an exception reading the file
+   */
+  private void open() throws IOException
+  {
+    // Start at the previous byte, and skip the rest of that line,
+    // unless this is the start of the file
+    final long nFirst = Math.max(0L, start - 1L);
+    final int bufferSize = (int) Math.min(ChannelLineReader.BUFFER_SIZE,
+                                          Math.max(1024L, end - nFirst));
+    reader = new ChannelLineReader(
+                   new RandomAccessFile(file, "r").getChannel(),
+                   nFirst, bufferSize);
+    openReaders.add(reader);
+    if ((start > 0L) && (!reader.nextLine()))
+    {
+      finish();
+    }
+  }
+  
+  
+  /**
+   * Mark the end of the range, and close the reader.
+   */
+  private void finish()
+  {
+    done = true;
+    if (reader != null)
+    {
+      openReaders.remove(reader);
+      reader.close();
+      reader = null;
+    }
+  }
+  
+  
+  /**
+   * Close the readers opened by this spliterator and the ones
+   * split from it.
+   */
+  void close()
+  {
+    ChannelLineReader open = openReaders.poll();
+    while (open != null)
+    {
+      open.close();
+      open = openReaders.poll();
+    }
+  }
+  
+  
+  /**
+   * If there is another matching term in the range, pass
+   * it to the action.
+   * 
+   * @param action the action to perform on the term
+   * @return whether there was another matching term
+   */
+  public boolean tryAdvance(final Consumer<? super IndexTerm> action)
+  {
+    try
+    {
+      if ((reader == null) && (!done))
+      {
+        open();
+      }
+      
+      while ((!done) && (reader.nextLine()))
+      {
+        // Stop at the first line that starts past the range
+        if (reader.getLineOffset() >= end)
+        {
+          break;
+        }
+        
+        // Check if we should process this line
+        final ByteLineParser parser = reader.getParser();
+        if ((parser.isEmpty()) || (parser.peek() == ' '))
+        {
+          continue;
+        }
+        
+        // Stop when we're past the lemmas that could match
+        final CharSequence lemma = parser.nextLemmaChars();
+        if ((key != null) &&
+            (!IndexFileSearch.inSearchRange(lemma, key, filter)))
+        {
+          break;
+        }
+        
+        // Check the characters of the lemma before making a string
+        if ((check != null) && (!check.mayMatch(lemma)))
+        {
+          continue;
+        }
+        
+        // Parse the line, if it passes the filter
+        IndexTerm data = ParseIndexFile.process(parser, lemma.toString(),
+                                                filter);
+        if (data != null)
+        {
+          action.accept(data);
+          return true;
+        }
+      }
+    }
+    catch (IOException ioe)
+    {
+      // Write an error message
+      writeErr("Exception reading: " + ioe.getMessage());
+    }
+    
+    finish();
+    return false;
+  }
+  
+  
+  /**
+   * Split off the first half of the range, if it hasn't
+   * been read yet and it's large enough.
+   * 
+   * @return a spliterator over the first half, or null
+   */
+  public Spliterator<IndexTerm> trySplit()
+  {
+    if ((reader != null) || (done) || ((end - start) < (2 * MIN_SPLIT_SIZE)))
+    {
+      return null;
+    }
+    
+    final long nMiddle = start + ((end - start) / 2);
+    IndexFileSpliterator prefix = new IndexFileSpliterator(this, nMiddle);
+    start = nMiddle;
+    return prefix;
+  }
+  
+  
+  /**
+   * Return an estimate of the number of terms in the range.
+   * 
+   * @return the estimated number of terms
+   */
+  public long estimateSize()
+  {
+    return ((done) ? 0L : ((end - start) / AVERAGE_LINE_LENGTH) + 1L);
+  }
+  
+  
+  /**
+   * Return the characteristics of the spliterator.
+   * 
+   * @return the characteristics
+   */
+  public int characteristics()
+  {
+    return (ORDERED | NONNULL | IMMUTABLE);
+  }
+}
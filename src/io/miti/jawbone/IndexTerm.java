@@ -74,6 +74,12 @@ public final class IndexTerm implements Comparable<IndexTerm>
    * Each synset offset in the list corresponds to a different
    * sense of lemma in WordNet.
    */
+  private long[] synsetOffsets;
+  
+  /**
+   * The synsets for the offsets.  These are only created when
+   * they're first requested.
+   */
   private Synset[] synsets;
   
   
@@ -213,7 +219,7 @@ public final class IndexTerm implements Comparable<IndexTerm>
     if (synsetCount > 0)
     {
       // It is, so allocate the array
-      synsets = new Synset[synsetCount];
+      synsetOffsets = new long[synsetCount];
     }
   }
   
@@ -224,12 +230,24 @@ public final class IndexTerm implements Comparable<IndexTerm>
   public Synset[] getSynsets()
   {
     // Check the array length
-    if (synsets == null)
+    if (synsetOffsets == null)
     {
       // It's null or empty so return null
       return null;
     }
     
+    // Create the synsets, if they haven't been created yet
+    if (synsets == null)
+    {
+      Dictionary dict = Dictionary.getInstance();
+      Synset[] list = new Synset[synsetOffsets.length];
+      for (int i = 0; i < synsetOffsets.length; ++i)
+      {
+        list[i] = dict.getSynset(synsetOffsets[i], partOfSpeech);
+      }
+      synsets = list;
+    }
+    
     // Make a new array
     Synset[] data = new Synset[synsets.length];
     
@@ -241,6 +259,45 @@ public final class IndexTerm implements Comparable<IndexTerm>
   }
   
   
+  /**
+   * Returns the offsets of the synsets, without creating the
+   * Synset objects.
+   * 
+   * @return the synset offsets
+   */
+  public long[] getSynsetOffsets()
+  {
+    // Check the array length
+    if (synsetOffsets == null)
+    {
+      // It's null or empty so return null
+      return null;
+    }
+    
+    // Make a new array
+    long[] data = new long[synsetOffsets.length];
+    
+    // Copy the array
+    System.arraycopy(synsetOffsets, 0, data, 0, synsetOffsets.length);
+    
+    // Return the copy
+    return data;
+  }
+  
+  
+  /**
+   * Returns the offset of the synset at the specified location
+   * in the array.
+   * 
+   * @param index the location in the array (0-based)
+   * @return the synset offset
+   */
+  long getSynsetOffset(final int index)
+  {
+    return synsetOffsets[index];
+  }
+  
+  
   /**
    * Sets the synset offset in the specified location
    * in the array.
@@ -251,7 +308,7 @@ public final class IndexTerm implements Comparable<IndexTerm>
   protected void setSynsetOffset(final int index,
                               final long lSynsetOffset)
   {
-    synsets[index] = new Synset(lSynsetOffset, partOfSpeech);
+    synsetOffsets[index] = lSynsetOffset;
   }
   
   
@@ -286,6 +343,7 @@ public final class IndexTerm implements Comparable<IndexTerm>
     // Clear the stored data
     lemma = null;
     pointers = null;
+    synsetOffsets = null;
     synsets = null;
   }
 
@@ -311,7 +369,7 @@ public final class IndexTerm implements Comparable<IndexTerm>
     for (int index = 0; index < synsetCount; ++index)
     {
       buf.append("\n  #").append(index + 1).append(": ")
-         .append(Long.toString(synsets[index].getSynsetOffset()));
+         .append(Long.toString(synsetOffsets[index]));
     }
     
     // Add the list of pointer symbols
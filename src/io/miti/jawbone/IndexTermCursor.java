@@ -0,0 +1,194 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is an iterator over the terms in an index that
+ * match a search.  The terms are found as they're requested,
+ * so the search stops as soon as the caller stops asking for
+ * terms.  An index file is only opened while a block of its
+ * lines is read, so the cursor doesn't hold any files open
+ * between terms, and can be dropped without being read to
+ * the end.  Closing the cursor ends the search early:
+ * <pre>
+ * IndexTermCursor cursor = dict.getIndexTermCursor(pos, -1, filter);
+ * try
+ * {
+ *   while (cursor.hasNext())
+ *   {
+ *     ...
+ *   }
+ * }
+ * finally
+ * {
+ *   cursor.close();
+ * }
+ * </pre>
+ * 
+ * @author mwallace
+ */
+public abstract class IndexTermCursor implements Iterator<IndexTerm>, AutoCloseable
+{
+  /**
+   * The maximum number of terms to return (-1 for no limit).
+   */
+  private final int maxLimit;
+  
+  /**
+   * The number of terms returned so far.
+   */
+  private int count = 0;
+  
+  /**
+   * The next term to return, if it has been found.
+   */
+  private IndexTerm nextTerm = null;
+  
+  /**
+   * Whether the search has finished.
+   */
+  private boolean done = false;
+  
+  
+  /**
+   * Constructor taking the maximum number of terms to return.
+   * 
+   * @param nMaxLimit the maximum number of terms to return (-1 for no limit)
+   */
+  IndexTermCursor(final int nMaxLimit)
+  {
+    maxLimit = nMaxLimit;
+    done = (maxLimit == 0);
+  }
+  
+  
+  /**
+   * Find the next matching term.
+   * 
+   * @return the next matching term, or null if there are no more
+   */
+  abstract IndexTerm fetch();
+  
+  
+  /**
+   * Release any resources held by the search.
+   */
+  abstract void release();
+  
+  
+  /**
+   * Returns whether there is another matching term.
+   * 
+   * @return whether there is another matching term
+   */
+  public boolean hasNext()
+  {
+    if ((nextTerm == null) && (!done))
+    {
+      // Find the next term, unless we've hit the limit
+      if ((maxLimit < 0) || (count < maxLimit))
+      {
+        nextTerm = fetch();
+      }
+      
+      // Release the resources once there are no more terms
+      if (nextTerm == null)
+      {
+        close();
+      }
+    }
+    
+    return (nextTerm != null);
+  }
+  
+  
+  /**
+   * Returns the next matching term.
+   * 
+   * @return the next matching term
+   */
+  public IndexTerm next()
+  {
+    if (!hasNext())
+    {
+      throw new NoSuchElementException("There are no more terms");
+    }
+    
+    IndexTerm term = nextTerm;
+    nextTerm = null;
+    ++count;
+    return term;
+  }
+  
+  
+  /**
+   * Terms can't be removed from the index.
+   */
+  public void remove()
+  {
+    throw new UnsupportedOperationException("Terms can't be removed");
+  }
+  
+  
+  /**
+   * Stop the search, and release any resources it holds.
+   */
+  public void close()
+  {
+    if (!done)
+    {
+      done = true;
+      release();
+    }
+  }
+  
+  
+  /**
+   * Return the rest of the matching terms in a list, and close
+   * the cursor.
+   * 
+   * @return the list of matching terms
+   */
+  List<IndexTerm> toList()
+  {
+    List<IndexTerm> listData = new ArrayList<IndexTerm>((maxLimit > 0) ?
+                                     Math.min(maxLimit, 500) : 500);
+    while (hasNext())
+    {
+      listData.add(next());
+    }
+    
+    return listData;
+  }
+}
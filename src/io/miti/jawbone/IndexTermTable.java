@@ -0,0 +1,827 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.AnagramFilter;
+import io.miti.jawbone.filter.ContainsAllFilter;
+import io.miti.jawbone.filter.ContainsFilter;
+import io.miti.jawbone.filter.ContainsSomeFilter;
+import io.miti.jawbone.filter.EndsWithFilter;
+import io.miti.jawbone.filter.ExactMatchFilter;
+import io.miti.jawbone.filter.MetadataFilter;
+import io.miti.jawbone.filter.PhoneticEncoder;
+import io.miti.jawbone.filter.RegexFilter;
+import io.miti.jawbone.filter.SimilarFilter;
+import io.miti.jawbone.filter.SoundFilter;
+import io.miti.jawbone.filter.SubAnagramFilter;
+import io.miti.jawbone.filter.TermFilter;
+import io.miti.jawbone.filter.WildcardFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class is the base for tables of the terms in one
+ * WordNet index file, kept in the sorted order of the file.
+ * Each term is identified by its position in that order.
+ * Subclasses provide access to the terms; this class
+ * provides the searches over them.
+ * 
+ * @author mwallace
+ */
+abstract class IndexTermTable
+{
+  /**
+   * The trie of the lemmas, built the first time it's needed.
+   */
+  private LemmaTrie trie = null;
+  
+  /**
+   * The index of the reversed lemmas, built the first time it's needed.
+   */
+  private SuffixIndex suffixIndex = null;
+  
+  /**
+   * The index of the trigrams in the lemmas, built the first
+   * time it's needed.
+   */
+  private TrigramIndex trigramIndex = null;
+  
+  /**
+   * The indexes of the phonetic codes of the lemmas, one for
+   * each encoder, built the first time each is needed.
+   */
+  private final List<PhoneticIndex> phoneticIndexes =
+    new ArrayList<PhoneticIndex>(1);
+  
+  /**
+   * The index of the letters in the lemmas, built the first
+   * time it's needed.
+   */
+  private AnagramIndex anagramIndex = null;
+  
+  
+  /**
+   * Default constructor.
+   */
+  protected IndexTermTable()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Return the number of terms in the table.
+   * 
+   * @return the number of terms
+   */
+  abstract int size();
+  
+  
+  /**
+   * Return the lemma of the term at the specified position.
+   * 
+   * @param id the position of the term
+   * @return the lemma
+   */
+  abstract String getLemma(int id);
+  
+  
+  /**
+   * Build an IndexTerm object for the term at the specified
+   * position.
+   * 
+   * @param id the position of the term
+   * @return the IndexTerm object for the term
+   */
+  abstract IndexTerm getTerm(int id);
+  
+  
+  /**
+   * Return the position of the lemma in the index, using a
+   * binary search.
+   * 
+   * @param lemma the lemma to search for
+   * @return the position of the lemma, or -1 if it's not found
+   */
+  int find(final String lemma)
+  {
+    // Check the input
+    if (lemma == null)
+    {
+      return -1;
+    }
+    
+    int low = 0;
+    int high = size() - 1;
+    while (low <= high)
+    {
+      // Compare the lemma in the middle of the range
+      final int mid = (low + high) >>> 1;
+      final int cmp = Utility.compareLemmas(getLemma(mid), lemma);
+      if (cmp < 0)
+      {
+        low = mid + 1;
+      }
+      else if (cmp > 0)
+      {
+        high = mid - 1;
+      }
+      else
+      {
+        // We found a match
+        return mid;
+      }
+    }
+    
+    // The lemma was not found
+    return -1;
+  }
+  
+  
+  /**
+   * Return the term for the lemma, if it's in the index.
+   * 
+   * @param lemma the lemma to search for
+   * @return the matching term, or null if it's not found
+   */
+  IndexTerm lookup(final String lemma)
+  {
+    // Find the lemma
+    final int id = find(lemma);
+    
+    // Return the term, if it was found
+    return ((id < 0) ? null : getTerm(id));
+  }
+  
+  
+  /**
+   * Return the trie of the lemmas in the table, building it the
+   * first time it's needed.  The keys in the trie are the lemmas
+   * as they appear in the index files (with underscores instead
+   * of spaces), and the position of each key is its term ID.
+   * 
+   * @return the trie of the lemmas
+   */
+  final synchronized LemmaTrie getTrie()
+  {
+    if (trie == null)
+    {
+      final int nSize = size();
+      String[] keys = new String[nSize];
+      for (int id = 0; id < nSize; ++id)
+      {
+        keys[id] = Utility.getIndexKey(getLemma(id));
+      }
+      
+      trie = new LemmaTrie(keys);
+    }
+    
+    return trie;
+  }
+  
+  
+  /**
+   * Return the index of the reversed lemmas in the table,
+   * building it the first time it's needed.
+   * 
+   * @return the index of the reversed lemmas
+   */
+  final synchronized SuffixIndex getSuffixIndex()
+  {
+    if (suffixIndex == null)
+    {
+      suffixIndex = new SuffixIndex(this);
+    }
+    
+    return suffixIndex;
+  }
+  
+  
+  /**
+   * Return the index of the trigrams in the lemmas in the table,
+   * building it the first time it's needed.
+   * 
+   * @return the index of the trigrams
+   */
+  final synchronized TrigramIndex getTrigramIndex()
+  {
+    if (trigramIndex == null)
+    {
+      trigramIndex = new TrigramIndex(this);
+    }
+    
+    return trigramIndex;
+  }
+  
+  
+  /**
+   * Return the index of the phonetic codes of the lemmas in the
+   * table for an encoder, building it the first time it's needed.
+   * 
+   * @param encoder the encoder for the codes
+   * @return the index of the phonetic codes
+   */
+  final synchronized PhoneticIndex getPhoneticIndex(final PhoneticEncoder encoder)
+  {
+    for (PhoneticIndex index : phoneticIndexes)
+    {
+      if (index.getEncoder().equals(encoder))
+      {
+        return index;
+      }
+    }
+    
+    final PhoneticIndex index = new PhoneticIndex(this, encoder);
+    phoneticIndexes.add(index);
+    return index;
+  }
+  
+  
+  /**
+   * Return the index of the letters in the lemmas in the table,
+   * building it the first time it's needed.
+   * 
+   * @return the index of the letters
+   */
+  final synchronized AnagramIndex getAnagramIndex()
+  {
+    if (anagramIndex == null)
+    {
+      anagramIndex = new AnagramIndex(this);
+    }
+    
+    return anagramIndex;
+  }
+  
+  
+  /**
+   * Return the IDs of the terms that could match the filter.
+   * Exact and starts-with searches only need to check the
+   * lemmas under the node for the term in the trie, and
+   * ends-with searches only need to check the lemmas found
+   * in the suffix index.  The contains filters only need to check
+   * the lemmas with the trigrams of their phrases, and similar
+   * searches only need to check the lemmas found by walking the
+   * trie with a Levenshtein automaton.  Sound searches only
+   * need to check the lemmas with the same phonetic code, and
+   * anagram searches only need to check the lemmas found in
+   * the index of their letters.  Wildcard searches only need
+   * to check the lemmas found by running the compiled pattern
+   * over the trie.  Regular expressions only need to check the
+   * lemmas under the node for their literal prefix (if any)
+   * that have the trigrams of their required literals.  Other
+   * filters need to check every term.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the IDs of the terms to check
+   */
+  Candidates getCandidates(final TermFilter filter)
+  {
+    final String key = IndexFileSearch.getSearchKey(filter);
+    if (key == null)
+    {
+      // Check for a suffix to look up
+      final String suffix = getSuffix(filter);
+      if (suffix != null)
+      {
+        return getSuffixIndex().find(suffix);
+      }
+      
+      // Check for a similar word to look up
+      if (filter instanceof SimilarFilter)
+      {
+        return getSimilarCandidates((SimilarFilter) filter);
+      }
+      
+      // Check for a phonetic code to look up
+      if (filter instanceof SoundFilter)
+      {
+        final SoundFilter sf = (SoundFilter) filter;
+        return getPhoneticIndex(sf.getEncoder()).find(sf.getTermCode());
+      }
+      
+      // Check for letters to look up
+      if (filter instanceof AnagramFilter)
+      {
+        return getAnagramIndex().find(((AnagramFilter) filter).getLetters());
+      }
+      else if (filter instanceof SubAnagramFilter)
+      {
+        return getAnagramIndex().findWithin(
+                 ((SubAnagramFilter) filter).getLetters());
+      }
+      
+      // Check for a wildcard pattern to run over the trie
+      if (filter instanceof WildcardFilter)
+      {
+        final int[] ids = new TrieMatcher(((WildcardFilter) filter)
+                            .getAutomaton()).find(getTrie());
+        return new Candidates(ids, ids.length);
+      }
+      
+      // Check for phrases to look up
+      final Candidates candidates = getContainsCandidates(filter);
+      return ((candidates == null) ? new Candidates(0, size()) : candidates);
+    }
+    
+    // Walk the trie to the node for the key
+    final LemmaTrie lemmaTrie = getTrie();
+    final int node = lemmaTrie.findPrefix(Utility.getIndexKey(key));
+    if (node < 0)
+    {
+      return new Candidates(0, 0);
+    }
+    else if (filter instanceof ExactMatchFilter)
+    {
+      return (lemmaTrie.isTerminal(node) ?
+                new Candidates(lemmaTrie.getFirst(node),
+                               lemmaTrie.getFirst(node) + 1) :
+                new Candidates(0, 0));
+    }
+    else if (filter instanceof RegexFilter)
+    {
+      return getRange(lemmaTrie.getFirst(node), lemmaTrie.getEnd(node),
+                      getContainsCandidates(filter));
+    }
+    
+    return new Candidates(lemmaTrie.getFirst(node), lemmaTrie.getEnd(node));
+  }
+  
+  
+  /**
+   * Return the IDs in a list that are in a range.
+   * 
+   * @param nStart the first ID in the range
+   * @param nEnd the ID after the last one in the range
+   * @param list the IDs to check (null for all IDs)
+   * @return the IDs in the list that are in the range
+   */
+  private static Candidates getRange(final int nStart,
+                                     final int nEnd,
+                                     final Candidates list)
+  {
+    if (list == null)
+    {
+      return new Candidates(nStart, nEnd);
+    }
+    
+    final int nSize = list.size();
+    int[] ids = new int[nSize];
+    int nCount = 0;
+    for (int i = 0; i < nSize; ++i)
+    {
+      final int id = list.get(i);
+      if ((id >= nStart) && (id < nEnd))
+      {
+        ids[nCount++] = id;
+      }
+    }
+    
+    return new Candidates(ids, nCount);
+  }
+  
+  
+  /**
+   * Return the suffix to look up in the suffix index for an
+   * ends-with filter.  The lemmas in the index files are lower
+   * case, so the term is too when the filter ignores case; the
+   * filter still checks each lemma that's found.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the suffix, or null if the index can't be used
+   */
+  private static String getSuffix(final TermFilter filter)
+  {
+    if (!(filter instanceof EndsWithFilter))
+    {
+      return null;
+    }
+    
+    final EndsWithFilter ewf = (EndsWithFilter) filter;
+    final String term = ewf.getTerm();
+    if ((term == null) || (term.length() < 1))
+    {
+      return null;
+    }
+    
+    return (ewf.isIgnoreCase() ? term.toLowerCase() : term);
+  }
+  
+  
+  /**
+   * Return the IDs of the terms with lemmas within the maximum
+   * distance of the word in a similar filter.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the IDs of the terms to check
+   */
+  private Candidates getSimilarCandidates(final SimilarFilter filter)
+  {
+    final String term = filter.getTerm();
+    if (term == null)
+    {
+      return new Candidates(0, 0);
+    }
+    
+    final int[] ids = new LevenshteinAutomaton(Utility.getIndexKey(term),
+                        filter.getMaxDistance(), filter.isIgnoreCase())
+                        .find(getTrie());
+    return new Candidates(ids, ids.length);
+  }
+  
+  
+  /**
+   * Return the IDs of the terms that could match a contains
+   * filter, from the trigrams of its phrases.  The literals
+   * that every match of a regular expression contains are
+   * looked up the same way.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the IDs of the terms to check, or null if the
+   *         trigram index can't narrow the search
+   */
+  private Candidates getContainsCandidates(final TermFilter filter)
+  {
+    if (filter instanceof ContainsFilter)
+    {
+      final String term = ((ContainsFilter) filter).getTerm();
+      return ((term == null) ? null :
+                getTrigramIndex().findAll(Collections.singletonList(term)));
+    }
+    else if (filter instanceof ContainsAllFilter)
+    {
+      return getTrigramIndex().findAll(((ContainsAllFilter) filter).getTerms());
+    }
+    else if (filter instanceof ContainsSomeFilter)
+    {
+      return getTrigramIndex().findSome(((ContainsSomeFilter) filter).getTerms());
+    }
+    else if (filter instanceof RegexFilter)
+    {
+      return getTrigramIndex().findAll(((RegexFilter) filter).getLiterals());
+    }
+    
+    return null;
+  }
+  
+  
+  /**
+   * Return the term with the specified ID, if it matches the filter.
+   * 
+   * @param id the ID of the term
+   * @param filter the filter to apply (null for no filter)
+   * @return the term, or null if it doesn't match
+   */
+  private IndexTerm getMatch(final int id, final TermFilter filter)
+  {
+    if ((filter != null) && (!filter.accept(getLemma(id))))
+    {
+      return null;
+    }
+    
+    // Check the rest of the term, for a metadata filter
+    final IndexTerm term = getTerm(id);
+    if ((filter instanceof MetadataFilter) &&
+        (!((MetadataFilter) filter).accept(term)))
+    {
+      return null;
+    }
+    
+    return term;
+  }
+  
+  
+  /**
+   * Return the terms in the index that match the filter.
+   * 
+   * @param maxLimit the maximum number of results to return (-1 for no limit)
+   * @param filter the filter to apply to the search results
+   * @return the list of matching search results
+   */
+  List<IndexTerm> search(final int maxLimit, final TermFilter filter)
+  {
+    return cursor(maxLimit, filter).toList();
+  }
+  
+  
+  /**
+   * Return a cursor over the terms in the index that match the
+   * filter.  The terms are checked as they're requested.
+   * 
+   * @param maxLimit the maximum number of results to return (-1 for no limit)
+   * @param filter the filter to apply to the search results
+   * @return the cursor over the matching search results
+   */
+  IndexTermCursor cursor(final int maxLimit, final TermFilter filter)
+  {
+    return new TableCursor(maxLimit, filter);
+  }
+  
+  
+  /**
+   * The IDs of the terms to check for a search, in increasing
+   * order.  This is either a range of IDs, or a list of them.
+   */
+  static final class Candidates
+  {
+    /**
+     * The list of IDs, or null for a range.
+     */
+    private final int[] ids;
+    
+    /**
+     * The first ID in the range.
+     */
+    private final int start;
+    
+    /**
+     * The number of IDs.
+     */
+    private final int count;
+    
+    
+    /**
+     * Constructor for a range of IDs.
+     * 
+     * @param nStart the first ID
+     * @param nEnd the ID after the last one
+     */
+    Candidates(final int nStart, final int nEnd)
+    {
+      ids = null;
+      start = nStart;
+      count = Math.max(0, nEnd - nStart);
+    }
+    
+    
+    /**
+     * Constructor for a list of IDs.
+     * 
+     * @param list the sorted list of IDs
+     * @param nCount the number of IDs in the list
+     */
+    Candidates(final int[] list, final int nCount)
+    {
+      ids = list;
+      start = 0;
+      count = nCount;
+    }
+    
+    
+    /**
+     * Return the number of IDs.
+     * 
+     * @return the number of IDs
+     */
+    int size()
+    {
+      return count;
+    }
+    
+    
+    /**
+     * Return the ID at the specified position.
+     * 
+     * @param index the position (0-based)
+     * @return the ID
+     */
+    int get(final int index)
+    {
+      return ((ids == null) ? (start + index) : ids[index]);
+    }
+  }
+  
+  
+  /**
+   * The cursor over the terms in the table that match a filter.
+   */
+  private final class TableCursor extends IndexTermCursor
+  {
+    /**
+     * The filter to apply to the terms.
+     */
+    private final TermFilter filter;
+    
+    /**
+     * The IDs of the terms to check.
+     */
+    private final Candidates candidates;
+    
+    /**
+     * The position in the candidates of the next term to check.
+     */
+    private int next = 0;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param nMaxLimit the maximum number of results to return
+     * @param termFilter the filter to apply to the search results
+     */
+    TableCursor(final int nMaxLimit, final TermFilter termFilter)
+    {
+      super(nMaxLimit);
+      filter = termFilter;
+      candidates = ((nMaxLimit == 0) ? new Candidates(0, 0)
+                                     : getCandidates(filter));
+    }
+    
+    
+    /**
+     * Check the terms until one matches the filter.
+     * 
+     * @return the next matching term, or null if there are no more
+     */
+    @Override
+    IndexTerm fetch()
+    {
+      final int nSize = candidates.size();
+      while (next < nSize)
+      {
+        final IndexTerm term = getMatch(candidates.get(next++), filter);
+        if (term != null)
+        {
+          return term;
+        }
+      }
+      
+      return null;
+    }
+    
+    
+    /**
+     * There's nothing to release.
+     */
+    @Override
+    void release()
+    {
+      next = candidates.size();
+    }
+  }
+  
+  
+  /**
+   * Return a Spliterator over the terms in the index that match
+   * the filter, so the table can be searched with a parallel
+   * stream.  The candidate terms are split into ranges.
+   * 
+   * @param filter the filter to apply to the search results
+   * @return the spliterator over the matching search results
+   */
+  Spliterator<IndexTerm> spliterator(final TermFilter filter)
+  {
+    final Candidates candidates = getCandidates(filter);
+    return new TableSpliterator(filter, candidates, 0, candidates.size());
+  }
+  
+  
+  /**
+   * The spliterator over a range of the terms in the table
+   * that match a filter.
+   */
+  private final class TableSpliterator implements Spliterator<IndexTerm>
+  {
+    /**
+     * Ranges smaller than this are not split.
+     */
+    private static final int MIN_SPLIT_SIZE = 1024;
+    
+    /**
+     * The filter to apply to the terms.
+     */
+    private final TermFilter filter;
+    
+    /**
+     * The IDs of the terms to check.
+     */
+    private final Candidates candidates;
+    
+    /**
+     * The position in the candidates of the next term to check.
+     */
+    private int next;
+    
+    /**
+     * The position in the candidates after the last one in the range.
+     */
+    private int end;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param termFilter the filter to apply to the search results
+     * @param termCandidates the IDs of the terms to check
+     * @param nStart the position of the first candidate in the range
+     * @param nEnd the position after the last candidate in the range
+     */
+    TableSpliterator(final TermFilter termFilter,
+                     final Candidates termCandidates,
+                     final int nStart,
+                     final int nEnd)
+    {
+      filter = termFilter;
+      candidates = termCandidates;
+      next = nStart;
+      end = nEnd;
+    }
+    
+    
+    /**
+     * If there is another matching term in the range, pass
+     * it to the action.
+     * 
+     * @param action the action to perform on the term
+     * @return whether there was another matching term
+     */
+    public boolean tryAdvance(final Consumer<? super IndexTerm> action)
+    {
+      while (next < end)
+      {
+        final IndexTerm term = getMatch(candidates.get(next++), filter);
+        if (term != null)
+        {
+          action.accept(term);
+          return true;
+        }
+      }
+      
+      return false;
+    }
+    
+    
+    /**
+     * Split off the first half of the range, if it's large enough.
+     * 
+     * @return a spliterator over the first half, or null
+     */
+    public Spliterator<IndexTerm> trySplit()
+    {
+      if ((end - next) < (2 * MIN_SPLIT_SIZE))
+      {
+        return null;
+      }
+      
+      final int nMiddle = next + ((end - next) / 2);
+      TableSpliterator prefix = new TableSpliterator(filter, candidates,
+                                                     next, nMiddle);
+      next = nMiddle;
+      return prefix;
+    }
+    
+    
+    /**
+     * Return the number of terms left in the range.  This is
+     * exact if there is no filter.
+     * 
+     * @return the number of terms left to check
+     */
+    public long estimateSize()
+    {
+      return (end - next);
+    }
+    
+    
+    /**
+     * Return the characteristics of the spliterator.
+     * 
+     * @return the characteristics
+     */
+    public int characteristics()
+    {
+      return ((filter == null) ? (ORDERED | NONNULL | IMMUTABLE | SIZED | SUBSIZED)
+                               : (ORDERED | NONNULL | IMMUTABLE));
+    }
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.ContainsFilter;
+import io.miti.jawbone.filter.EndsWithFilter;
+import io.miti.jawbone.filter.ExactMatchFilter;
+import io.miti.jawbone.filter.RegexFilter;
+import io.miti.jawbone.filter.StartsWithFilter;
+import io.miti.jawbone.filter.TermAutomaton;
+import io.miti.jawbone.filter.TermFilter;
+import io.miti.jawbone.filter.WildcardFilter;
+
+import java.util.List;
+
+/**
+ * This class checks the characters of a lemma against a filter
+ * before the lemma is copied into a string, so the lines of an
+ * index file that can't match are skipped without allocating
+ * anything.  The check is only a first pass: a lemma that passes
+ * it is still given to the filter, so the check may pass lemmas
+ * that the filter rejects, but never the other way around.
+ * <p>
+ * When the case is ignored, the characters are compared after
+ * converting ASCII letters to upper case, so a term with other
+ * characters gets no check, and a lemma with other characters
+ * always passes.
+ * 
+ * @author mwallace
+ */
+final class LemmaCheck
+{
+  /**
+   * The start of every match (null for no check).
+   */
+  private String prefix = null;
+  
+  /**
+   * Whether the match must be the prefix, with nothing after it.
+   */
+  private boolean exact = false;
+  
+  /**
+   * The end of every match (null for no check).
+   */
+  private String suffix = null;
+  
+  /**
+   * The strings that every match contains (null for no check).
+   */
+  private String[] infixes = null;
+  
+  /**
+   * The automaton that accepts the matches (null for no check).
+   */
+  private TermAutomaton automaton = null;
+  
+  /**
+   * Whether to ignore the case.  The strings are in upper case
+   * if this is set.
+   */
+  private boolean ignoreCase = false;
+  
+  
+  /**
+   * Default constructor.
+   */
+  private LemmaCheck()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Return the check for a filter.
+   * 
+   * @param filter the filter
+   * @return the check, or null if the filter can't be checked
+   *         before the lemma is a string
+   */
+  static LemmaCheck create(final TermFilter filter)
+  {
+    LemmaCheck check = new LemmaCheck();
+    if (filter instanceof ExactMatchFilter)
+    {
+      ExactMatchFilter exactFilter = (ExactMatchFilter) filter;
+      check.ignoreCase = exactFilter.isIgnoreCase();
+      check.prefix = check.getKey(exactFilter.getTerm());
+      check.exact = true;
+    }
+    else if (filter instanceof StartsWithFilter)
+    {
+      StartsWithFilter startFilter = (StartsWithFilter) filter;
+      check.ignoreCase = startFilter.isIgnoreCase();
+      check.prefix = check.getKey(startFilter.getTerm());
+    }
+    else if (filter instanceof EndsWithFilter)
+    {
+      EndsWithFilter endFilter = (EndsWithFilter) filter;
+      check.ignoreCase = endFilter.isIgnoreCase();
+      check.suffix = check.getKey(endFilter.getTerm());
+    }
+    else if (filter instanceof ContainsFilter)
+    {
+      ContainsFilter containsFilter = (ContainsFilter) filter;
+      check.ignoreCase = containsFilter.isIgnoreCase();
+      final String infix = check.getKey(containsFilter.getTerm());
+      if (infix != null)
+      {
+        check.infixes = new String[] {infix};
+      }
+    }
+    else if (filter instanceof RegexFilter)
+    {
+      // The literals are only required when the case matters
+      RegexFilter regexFilter = (RegexFilter) filter;
+      check.ignoreCase = regexFilter.isIgnoreCase();
+      check.prefix = check.getKey(regexFilter.getPrefix());
+      if (!check.ignoreCase)
+      {
+        List<String> literals = regexFilter.getLiterals();
+        check.infixes = literals.toArray(new String[literals.size()]);
+      }
+    }
+    else if (filter instanceof WildcardFilter)
+    {
+      check.automaton = ((WildcardFilter) filter).getAutomaton();
+    }
+    
+    return (check.isEmpty() ? null : check);
+  }
+  
+  
+  /**
+   * Return a term of a filter as it's compared to the lemmas.
+   * 
+   * @param term the term
+   * @return the term to compare, or null if it can't be compared
+   */
+  private String getKey(final String term)
+  {
+    if ((term == null) || (!ignoreCase))
+    {
+      return term;
+    }
+    
+    // Only ASCII characters can be compared when ignoring case
+    final int nLen = term.length();
+    char[] chars = new char[nLen];
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = term.charAt(i);
+      if (ch > 0x7F)
+      {
+        return null;
+      }
+      
+      chars[i] = toUpper(ch);
+    }
+    
+    return new String(chars);
+  }
+  
+  
+  /**
+   * Return whether there is nothing to check.
+   * 
+   * @return whether the check passes every lemma
+   */
+  private boolean isEmpty()
+  {
+    return ((automaton == null) && (suffix == null) &&
+            ((infixes == null) || (infixes.length == 0)) &&
+            ((prefix == null) || ((prefix.length() == 0) && (!exact))));
+  }
+  
+  
+  /**
+   * Return whether a lemma could match the filter.
+   * 
+   * @param lemma the characters of the lemma
+   * @return false if the filter rejects the lemma
+   */
+  boolean mayMatch(final CharSequence lemma)
+  {
+    if (automaton != null)
+    {
+      return matches(lemma);
+    }
+    
+    // Check that the case of the lemma can be ignored
+    final int nLen = lemma.length();
+    if (ignoreCase)
+    {
+      for (int i = 0; i < nLen; ++i)
+      {
+        if (lemma.charAt(i) > 0x7F)
+        {
+          return true;
+        }
+      }
+    }
+    
+    // Check the start and end of the lemma
+    if ((prefix != null) &&
+        ((exact && (nLen != prefix.length())) || (!regionMatches(lemma, 0, prefix))))
+    {
+      return false;
+    }
+    else if ((suffix != null) &&
+             (!regionMatches(lemma, nLen - suffix.length(), suffix)))
+    {
+      return false;
+    }
+    
+    // Check the strings it must contain
+    if (infixes != null)
+    {
+      for (int i = 0; i < infixes.length; ++i)
+      {
+        if (indexOf(lemma, infixes[i]) < 0)
+        {
+          return false;
+        }
+      }
+    }
+    
+    return true;
+  }
+  
+  
+  /**
+   * Return whether the automaton accepts a lemma.
+   * 
+   * @param lemma the characters of the lemma
+   * @return whether the lemma matches
+   */
+  private boolean matches(final CharSequence lemma)
+  {
+    long state = automaton.getStartState();
+    final int nLen = lemma.length();
+    for (int i = 0; (i < nLen) && (!automaton.isDead(state)); ++i)
+    {
+      state = automaton.step(state, lemma.charAt(i));
+    }
+    
+    return automaton.isAccepting(state);
+  }
+  
+  
+  /**
+   * Return whether a string is found in a lemma at a position.
+   * 
+   * @param lemma the characters of the lemma
+   * @param start the position in the lemma
+   * @param str the string
+   * @return whether the lemma has the string at the position
+   */
+  private boolean regionMatches(final CharSequence lemma,
+                                final int start,
+                                final String str)
+  {
+    final int nLen = str.length();
+    if ((start < 0) || ((start + nLen) > lemma.length()))
+    {
+      return false;
+    }
+    
+    for (int i = 0; i < nLen; ++i)
+    {
+      if (charAt(lemma, start + i) != str.charAt(i))
+      {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
+  
+  /**
+   * Return the position of the first occurrence of a string
+   * in a lemma.
+   * 
+   * @param lemma the characters of the lemma
+   * @param str the string
+   * @return the position of the string, or -1 if it isn't found
+   */
+  private int indexOf(final CharSequence lemma, final String str)
+  {
+    final int nLast = lemma.length() - str.length();
+    for (int i = 0; i <= nLast; ++i)
+    {
+      if (regionMatches(lemma, i, str))
+      {
+        return i;
+      }
+    }
+    
+    return -1;
+  }
+  
+  
+  /**
+   * Return a character of a lemma, in upper case if the case
+   * is ignored.
+   * 
+   * @param lemma the characters of the lemma
+   * @param index the position of the character
+   * @return the character
+   */
+  private char charAt(final CharSequence lemma, final int index)
+  {
+    final char ch = lemma.charAt(index);
+    return (ignoreCase ? toUpper(ch) : ch);
+  }
+  
+  
+  /**
+   * Convert an ASCII letter to upper case.
+   * 
+   * @param ch the character
+   * @return the character in upper case
+   */
+  private static char toUpper(final char ch)
+  {
+    return (((ch >= 'a') && (ch <= 'z')) ? (char) (ch - ('a' - 'A')) : ch);
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+/**
+ * This class is a compact trie over a sorted list of keys.
+ * The nodes are stored in arrays in breadth-first order, so
+ * the children of each node are next to each other (sorted
+ * by the character on the edge into them), and the children
+ * of one node are followed by the children of the next.
+ * Since the keys are sorted, the keys under a node are a
+ * contiguous range of the list, which is stored with the node.
+ * A search for a key or a prefix walks one node per character,
+ * and returns the range of keys that match.
+ * 
+ * @author mwallace
+ */
+final class LemmaTrie
+{
+  /**
+   * The root node.
+   */
+  static final int ROOT = 0;
+  
+  /**
+   * The character on the edge into each node.
+   */
+  private final char[] labels;
+  
+  /**
+   * The position of the first child of each node.  This has one
+   * more entry than there are nodes, so the children of a node
+   * end where the children of the next node start.
+   */
+  private final int[] childStart;
+  
+  /**
+   * The position in the list of the first key under each node.
+   */
+  private final int[] first;
+  
+  /**
+   * The position in the list after the last key under each node.
+   */
+  private final int[] end;
+  
+  /**
+   * Whether a key ends at each node.  If so, it's the first
+   * key under the node.
+   */
+  private final boolean[] terminal;
+  
+  
+  /**
+   * Constructor taking the sorted list of keys.  The keys
+   * must be sorted by character value.
+   * 
+   * @param keys the sorted list of keys
+   */
+  LemmaTrie(final String[] keys)
+  {
+    // Count the nodes: one for the root, and one for each
+    // character of each key after its common prefix with
+    // the previous key
+    int nodes = 1;
+    for (int i = 0; i < keys.length; ++i)
+    {
+      nodes += keys[i].length() -
+               ((i == 0) ? 0 : commonPrefix(keys[i - 1], keys[i]));
+    }
+    
+    labels = new char[nodes];
+    childStart = new int[nodes + 1];
+    first = new int[nodes];
+    end = new int[nodes];
+    terminal = new boolean[nodes];
+    
+    // Build the nodes in breadth-first order.  Each node covers
+    // a range of keys with a common prefix as long as its depth.
+    int[] depth = new int[nodes];
+    first[ROOT] = 0;
+    end[ROOT] = keys.length;
+    int count = 1;
+    for (int node = 0; node < count; ++node)
+    {
+      childStart[node] = count;
+      int nKey = first[node];
+      final int nDepth = depth[node];
+      
+      // The key that ends here is first, since it's a prefix of the
+      // others (a repeated key is skipped)
+      while ((nKey < end[node]) && (keys[nKey].length() == nDepth))
+      {
+        terminal[node] = true;
+        ++nKey;
+      }
+      
+      // Add a child for each distinct next character
+      while (nKey < end[node])
+      {
+        final char ch = keys[nKey].charAt(nDepth);
+        final int nStart = nKey;
+        while ((nKey < end[node]) && (keys[nKey].charAt(nDepth) == ch))
+        {
+          ++nKey;
+        }
+        
+        labels[count] = ch;
+        first[count] = nStart;
+        end[count] = nKey;
+        depth[count] = nDepth + 1;
+        ++count;
+      }
+    }
+    
+    childStart[count] = count;
+  }
+  
+  
+  /**
+   * Return the length of the common prefix of two strings.
+   * 
+   * @param str1 the first string
+   * @param str2 the second string
+   * @return the length of the common prefix
+   */
+  private static int commonPrefix(final String str1, final String str2)
+  {
+    final int nLen = Math.min(str1.length(), str2.length());
+    int i = 0;
+    while ((i < nLen) && (str1.charAt(i) == str2.charAt(i)))
+    {
+      ++i;
+    }
+    
+    return i;
+  }
+  
+  
+  /**
+   * Return the number of nodes in the trie.
+   * 
+   * @return the number of nodes
+   */
+  int getNodeCount()
+  {
+    return labels.length;
+  }
+  
+  
+  /**
+   * Return the child of a node along the edge with the
+   * specified character.
+   * 
+   * @param node the node
+   * @param ch the character on the edge
+   * @return the child, or -1 if there isn't one
+   */
+  int getChild(final int node, final char ch)
+  {
+    // Binary search the children, which are sorted by character
+    int low = childStart[node];
+    int high = childStart[node + 1] - 1;
+    while (low <= high)
+    {
+      final int mid = (low + high) >>> 1;
+      final char label = labels[mid];
+      if (label < ch)
+      {
+        low = mid + 1;
+      }
+      else if (label > ch)
+      {
+        high = mid - 1;
+      }
+      else
+      {
+        return mid;
+      }
+    }
+    
+    return -1;
+  }
+  
+  
+  /**
+   * Return the node reached by following the characters of a
+   * prefix from the root.
+   * 
+   * @param prefix the prefix
+   * @return the node, or -1 if no key starts with the prefix
+   */
+  int findPrefix(final CharSequence prefix)
+  {
+    int node = ROOT;
+    final int nLen = prefix.length();
+    for (int i = 0; (i < nLen) && (node >= 0); ++i)
+    {
+      node = getChild(node, prefix.charAt(i));
+    }
+    
+    return node;
+  }
+  
+  
+  /**
+   * Return the position of a key in the list.
+   * 
+   * @param key the key
+   * @return the position of the key, or -1 if it's not in the list
+   */
+  int find(final CharSequence key)
+  {
+    final int node = findPrefix(key);
+    return (((node >= 0) && (terminal[node])) ? first[node] : -1);
+  }
+  
+  
+  /**
+   * Return the position of the first child of a node.
+   * 
+   * @param node the node
+   * @return the position of the first child
+   */
+  int getChildStart(final int node)
+  {
+    return childStart[node];
+  }
+  
+  
+  /**
+   * Return the position after the last child of a node.
+   * 
+   * @param node the node
+   * @return the position after the last child
+   */
+  int getChildEnd(final int node)
+  {
+    return childStart[node + 1];
+  }
+  
+  
+  /**
+   * Return the character on the edge into a node.
+   * 
+   * @param node the node
+   * @return the character on the edge
+   */
+  char getLabel(final int node)
+  {
+    return labels[node];
+  }
+  
+  
+  /**
+   * Return whether a key ends at a node.
+   * 
+   * @param node the node
+   * @return whether a key ends at the node
+   */
+  boolean isTerminal(final int node)
+  {
+    return terminal[node];
+  }
+  
+  
+  /**
+   * Return the position in the list of the first key under
+   * a node.  If a key ends at the node, this is its position.
+   * 
+   * @param node the node
+   * @return the position of the first key
+   */
+  int getFirst(final int node)
+  {
+    return first[node];
+  }
+  
+  
+  /**
+   * Return the position in the list after the last key under
+   * a node.
+   * 
+   * @param node the node
+   * @return the position after the last key
+   */
+  int getEnd(final int node)
+  {
+    return end[node];
+  }
+}
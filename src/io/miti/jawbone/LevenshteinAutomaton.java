@@ -0,0 +1,216 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.Arrays;
+
+/**
+ * This class finds the keys in a trie that are within a maximum
+ * Levenshtein distance of a word.  It walks the trie depth-first,
+ * keeping one row of the edit-distance table for each node on the
+ * path from the root; the row is the state of the Levenshtein
+ * automaton for the word after reading the characters on the path.
+ * A branch is skipped as soon as every entry in its row is over
+ * the maximum distance, since no key under it can match, so only
+ * a small part of the trie is visited for small distances.
+ * 
+ * @author mwallace
+ */
+final class LevenshteinAutomaton
+{
+  /**
+   * The characters of the word.
+   */
+  private final char[] chars;
+  
+  /**
+   * The maximum distance of a match.
+   */
+  private final int maxDistance;
+  
+  /**
+   * Whether to ignore the case of the characters.
+   */
+  private final boolean ignoreCase;
+  
+  /**
+   * The row of the table for each depth in the trie.
+   */
+  private int[][] rows = null;
+  
+  /**
+   * The positions of the matching keys.
+   */
+  private int[] matches = null;
+  
+  /**
+   * The number of matching keys.
+   */
+  private int count = 0;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param key the word to match, as a key in the trie
+   * @param nMaxDistance the maximum distance of a match
+   * @param bIgnoreCase whether to ignore the case of the characters
+   */
+  LevenshteinAutomaton(final String key,
+                       final int nMaxDistance,
+                       final boolean bIgnoreCase)
+  {
+    maxDistance = nMaxDistance;
+    ignoreCase = bIgnoreCase;
+    chars = new char[key.length()];
+    for (int i = 0; i < chars.length; ++i)
+    {
+      chars[i] = fold(key.charAt(i));
+    }
+  }
+  
+  
+  /**
+   * Return a character with its case folded, if case is ignored.
+   * 
+   * @param ch the character
+   * @return the character to compare
+   */
+  private char fold(final char ch)
+  {
+    return (ignoreCase ? Character.toUpperCase(ch) : ch);
+  }
+  
+  
+  /**
+   * Return the positions of the keys in the trie that are within
+   * the maximum distance of the word, in increasing order.
+   * 
+   * @param trie the trie to search
+   * @return the positions of the matching keys
+   */
+  synchronized int[] find(final LemmaTrie trie)
+  {
+    matches = new int[16];
+    count = 0;
+    if (maxDistance >= 0)
+    {
+      // The first row is the distance from the empty string
+      rows = new int[16][];
+      rows[0] = new int[chars.length + 1];
+      for (int j = 0; j <= chars.length; ++j)
+      {
+        rows[0][j] = j;
+      }
+      
+      if ((chars.length <= maxDistance) && (trie.isTerminal(LemmaTrie.ROOT)))
+      {
+        addMatch(trie.getFirst(LemmaTrie.ROOT));
+      }
+      
+      walk(trie, LemmaTrie.ROOT, 1);
+      rows = null;
+    }
+    
+    // Return the positions in increasing order
+    int[] result = Arrays.copyOf(matches, count);
+    matches = null;
+    Arrays.sort(result);
+    return result;
+  }
+  
+  
+  /**
+   * Visit the children of a node, and their children while
+   * a match is still possible.
+   * 
+   * @param trie the trie to search
+   * @param node the node
+   * @param depth the depth of the children
+   */
+  private void walk(final LemmaTrie trie, final int node, final int depth)
+  {
+    if (depth == rows.length)
+    {
+      rows = Arrays.copyOf(rows, depth * 2);
+    }
+    if (rows[depth] == null)
+    {
+      rows[depth] = new int[chars.length + 1];
+    }
+    
+    final int[] prev = rows[depth - 1];
+    final int[] row = rows[depth];
+    final int nLen = chars.length;
+    final int nEnd = trie.getChildEnd(node);
+    for (int child = trie.getChildStart(node); child < nEnd; ++child)
+    {
+      // Compute the row for the child's character
+      final char ch = fold(trie.getLabel(child));
+      row[0] = depth;
+      int min = depth;
+      for (int j = 1; j <= nLen; ++j)
+      {
+        final int cost = ((chars[j - 1] == ch) ? 0 : 1);
+        final int dist = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1),
+                                  prev[j - 1] + cost);
+        row[j] = dist;
+        min = Math.min(min, dist);
+      }
+      
+      // Save the key that ends here, if it's close enough
+      if ((row[nLen] <= maxDistance) && (trie.isTerminal(child)))
+      {
+        addMatch(trie.getFirst(child));
+      }
+      
+      // Check the keys under the child, if any can still match
+      if (min <= maxDistance)
+      {
+        walk(trie, child, depth + 1);
+      }
+    }
+  }
+  
+  
+  /**
+   * Add the position of a matching key to the list.
+   * 
+   * @param position the position of the key
+   */
+  private void addMatch(final int position)
+  {
+    if (count == matches.length)
+    {
+      matches = Arrays.copyOf(matches, count * 2);
+    }
+    
+    matches[count++] = position;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class maps a WordNet data file (e.g., data.noun) into
+ * memory, so a synset can be read from its offset without
+ * opening the file.  The file is mapped once, and all reads
+ * use absolute positions, so it can be shared by threads.
+ * 
+ * @author mwallace
+ */
+final class MappedDataFile
+{
+  /**
+   * The contents of the data file.
+   */
+  private final MappedByteBuffer buffer;
+  
+  
+  /**
+   * Constructor taking the mapped contents of the file.
+   * 
+   * @param mapped the contents of the data file
+   */
+  private MappedDataFile(final MappedByteBuffer mapped)
+  {
+    buffer = mapped;
+  }
+  
+  
+  /**
+   * Map the data file for the part of speech into memory.
+   * 
+   * @param pos the part of speech
+   * @return the mapped data file, or null if it could not be mapped
+   */
+  static MappedDataFile load(final PartOfSpeech pos)
+  {
+    // Get the input filename
+    final String inputFile = Utility.getFilename(pos, false);
+    if ((inputFile == null) || (inputFile.length() < 1))
+    {
+      return null;
+    }
+    
+    // Verify it's a file
+    File file = new File(inputFile);
+    if (!file.isFile())
+    {
+      return null;
+    }
+    
+    // Map the file.  The mapping stays valid after the file is closed.
+    RandomAccessFile raf = null;
+    MappedDataFile data = null;
+    try
+    {
+      raf = new RandomAccessFile(file, "r");
+      FileChannel channel = raf.getChannel();
+      data = new MappedDataFile(channel.map(FileChannel.MapMode.READ_ONLY,
+                                            0L, channel.size()));
+    }
+    catch (IOException ioe)
+    {
+      System.err.println("Exception mapping the data file: " + ioe.getMessage());
+    }
+    finally
+    {
+      if (raf != null)
+      {
+        try
+        {
+          raf.close();
+          raf = null;
+        }
+        catch (Exception e)
+        {
+          // Nothing to do here
+          raf = null;
+        }
+      }
+    }
+    
+    return data;
+  }
+  
+  
+  /**
+   * Return a parser for the line starting at the specified
+   * offset in the file.  The line is parsed in place, without
+   * copying it out of the file.
+   * 
+   * @param offset the offset of the start of the line
+   * @return the parser for the line, or null if the offset is
+   *         past the end of the file
+   */
+  ByteLineParser getLine(final long offset)
+  {
+    // Check the offset
+    if ((offset < 0L) || (offset >= buffer.limit()))
+    {
+      return null;
+    }
+    
+    ByteLineParser parser = new ByteLineParser(buffer);
+    parser.setLine((int) offset);
+    return parser;
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class is a cursor that merges the terms from several
+ * other cursors, each of which returns its terms in the order
+ * of the index files (see Utility.compareLemmas()).  The terms
+ * are returned in the same order, and terms with the same lemma
+ * are returned in the order of the cursors.  Each cursor is
+ * read in batches on a background thread, and the next batch is
+ * read while the current one is being merged, so the index files
+ * are searched at the same time.
+ * 
+ * @author mwallace
+ */
+final class MergedTermCursor extends IndexTermCursor
+{
+  /**
+   * The number of terms read from a cursor at a time.
+   */
+  private static final int BATCH_SIZE = 256;
+  
+  /**
+   * The threads that read the batches.  These are daemon
+   * threads, so they don't keep the application running.
+   */
+  private static final ExecutorService executor =
+    Executors.newCachedThreadPool(new ThreadFactory()
+    {
+      public Thread newThread(final Runnable r)
+      {
+        Thread thread = new Thread(r, "jawbone-search");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  
+  /**
+   * The cursors being merged.
+   */
+  private final Source[] sources;
+  
+  
+  /**
+   * Constructor taking the cursors to merge.
+   * 
+   * @param cursors the cursors to merge
+   * @param nMaxLimit the maximum number of terms to return (-1 for no limit)
+   */
+  MergedTermCursor(final IndexTermCursor[] cursors, final int nMaxLimit)
+  {
+    super(nMaxLimit);
+    
+    // Start reading the first batch from each cursor
+    sources = new Source[cursors.length];
+    for (int i = 0; i < cursors.length; ++i)
+    {
+      sources[i] = new Source(cursors[i]);
+      if (nMaxLimit == 0)
+      {
+        sources[i].close();
+      }
+      else
+      {
+        sources[i].readAhead();
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the term with the lowest lemma from the heads of
+   * the cursors.
+   * 
+   * @return the next term, or null if there are no more
+   */
+  @Override
+  IndexTerm fetch()
+  {
+    // Find the source with the lowest lemma
+    Source next = null;
+    for (int i = 0; i < sources.length; ++i)
+    {
+      final IndexTerm head = sources[i].peek();
+      if ((head != null) &&
+          ((next == null) ||
+           (Utility.compareLemmas(head.getLemma(), next.peek().getLemma()) < 0)))
+      {
+        next = sources[i];
+      }
+    }
+    
+    return ((next == null) ? null : next.take());
+  }
+  
+  
+  /**
+   * Close each of the cursors.
+   */
+  @Override
+  void release()
+  {
+    for (int i = 0; i < sources.length; ++i)
+    {
+      sources[i].close();
+    }
+  }
+  
+  
+  /**
+   * One of the cursors being merged, and the batch of terms
+   * read from it.
+   */
+  private static final class Source implements Callable<List<IndexTerm>>
+  {
+    /**
+     * The cursor.
+     */
+    private final IndexTermCursor cursor;
+    
+    /**
+     * The batch being merged.
+     */
+    private List<IndexTerm> batch = new ArrayList<IndexTerm>(0);
+    
+    /**
+     * The position of the next term in the batch.
+     */
+    private int index = 0;
+    
+    /**
+     * The next batch, while it's being read.
+     */
+    private Future<List<IndexTerm>> pending = null;
+    
+    /**
+     * Whether the cursor has been closed.  This is set without
+     * holding the lock, so a batch being read stops at the next
+     * term.
+     */
+    private volatile boolean closed = false;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param termCursor the cursor
+     */
+    Source(final IndexTermCursor termCursor)
+    {
+      cursor = termCursor;
+    }
+    
+    
+    /**
+     * Read the next batch of terms from the cursor.  This is
+     * called on a background thread.  The lock is only held
+     * while each term is read, so closing the cursor doesn't
+     * wait for the rest of the batch.
+     * 
+     * @return the next batch of terms (empty at the end)
+     */
+    public List<IndexTerm> call()
+    {
+      List<IndexTerm> terms = new ArrayList<IndexTerm>(BATCH_SIZE);
+      while ((!closed) && (terms.size() < BATCH_SIZE))
+      {
+        synchronized (this)
+        {
+          if ((closed) || (!cursor.hasNext()))
+          {
+            break;
+          }
+          
+          terms.add(cursor.next());
+        }
+      }
+      
+      return terms;
+    }
+    
+    
+    /**
+     * Start reading the next batch on a background thread.
+     */
+    void readAhead()
+    {
+      pending = executor.submit(this);
+    }
+    
+    
+    /**
+     * Return the next term from the cursor, without removing it.
+     * 
+     * @return the next term, or null if there are no more
+     */
+    IndexTerm peek()
+    {
+      // Wait for the next batch if this one has been merged
+      if ((index >= batch.size()) && (pending != null))
+      {
+        try
+        {
+          batch = pending.get();
+        }
+        catch (InterruptedException ie)
+        {
+          // Stop reading the batch, rather than return part of the
+          // merge; the cancelled batch fails any later call too
+          pending.cancel(true);
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while searching the index", ie);
+        }
+        catch (ExecutionException ee)
+        {
+          throw new RuntimeException("Exception searching the index: " +
+                                     ee.getCause().getMessage(), ee.getCause());
+        }
+        
+        // Start reading the batch after this one
+        index = 0;
+        pending = null;
+        if (batch.size() == BATCH_SIZE)
+        {
+          readAhead();
+        }
+      }
+      
+      return ((index < batch.size()) ? batch.get(index) : null);
+    }
+    
+    
+    /**
+     * Remove the next term from the cursor and return it.
+     * 
+     * @return the next term
+     */
+    IndexTerm take()
+    {
+      return batch.get(index++);
+    }
+    
+    
+    /**
+     * Close the cursor.  If a batch is being read, it stops
+     * after the term being read.
+     */
+    void close()
+    {
+      closed = true;
+      if (pending != null)
+      {
+        pending.cancel(false);
+        pending = null;
+      }
+      
+      synchronized (this)
+      {
+        cursor.close();
+      }
+    }
+  }
+}
@@ -28,8 +28,8 @@
 
 package io.miti.jawbone;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -76,7 +76,28 @@ final class ParseDataFile
                                    final Synset data)
   {
     // Check the input
-    if ((line == null) || (line.length() < 1) || (line.charAt(0) == ' '))
+    if ((line == null) || (line.length() < 1))
+    {
+      return false;
+    }
+    
+    return process(new ByteLineParser(line), data);
+  }
+  
+  
+  /**
+   * Parse a line from the input file, in place, and store the
+   * data in a structure.
+   * 
+   * @param parser the parser for the input line
+   * @param data the Synset object we want to populate
+   * @return the result of the parsing
+   */
+  static boolean process(final ByteLineParser parser,
+                         final Synset data)
+  {
+    // Check the input
+    if ((parser == null) || (parser.isEmpty()) || (parser.peek() == ' '))
     {
       return false;
     }
@@ -85,22 +106,19 @@ final class ParseDataFile
       return false;
     }
     
-    // Split the line based on the space characters
-    LineSplitter st = new LineSplitter(line, ' ');
-    
     // Get token 0
-    long lSynsetOffset = Long.parseLong(st.nextToken());
+    long lSynsetOffset = parser.nextLong();
     data.setSynsetOffset(lSynsetOffset);
     
     // Get token 1
-    int nLexFileNum = Integer.parseInt(st.nextToken());
+    int nLexFileNum = parser.nextInt();
     data.setLexFilenum(nLexFileNum);
     
     // Get token 2
-    data.setPosType(st.nextToken().charAt(0));
+    data.setPosType(parser.nextChar());
     
     // Get token 3
-    int nNumWordsInSynset = Integer.parseInt(st.nextToken(), 16);
+    int nNumWordsInSynset = parser.nextHex();
     data.setNumWords(nNumWordsInSynset);
     
     // Get token 4
@@ -108,10 +126,10 @@ final class ParseDataFile
     while (nIndex < nNumWordsInSynset)
     {
       // Get the word, and change underscores to spaces
-      String word = st.nextToken().replace('_', ' ');
+      String word = parser.nextLemma();
       
       // Get the lexicon ID
-      final int lexID = Integer.parseInt(st.nextToken(), 16);
+      final int lexID = parser.nextHex();
       String syntacticMarker = null;
       
       // Check if this is an adjective file
@@ -135,7 +153,8 @@ final class ParseDataFile
                                  data.getPOS(), data.getSynsetOffset());
       
       // Check if we should load the sense number now
-      if (!Utility.DELAY_LOADING_SYNSET_NUM)
+      if ((!Utility.DELAY_LOADING_SYNSET_NUM) ||
+          (Dictionary.getUseEagerSenseNumbers()))
       {
         // Load the sense number
         int senseNum = ParseIndexFile.getSenseNumber(word, data.getPOS(),
@@ -153,7 +172,7 @@ final class ParseDataFile
     }
     
     // Get token 5
-    int nNumPointers = Integer.parseInt(st.nextToken());
+    int nNumPointers = parser.nextInt();
     data.setPointerCount(nNumPointers);
     
     // Get token 6
@@ -161,14 +180,14 @@ final class ParseDataFile
     while (nIndex < nNumPointers)
     {
       // Parse the pointer data
-      String ptrSymbol = st.nextToken();
-      long synsetOffset = Long.parseLong(st.nextToken());
-      char pos = st.nextToken().charAt(0);
-      String wordNumberStr = st.nextToken();
-      int wordNumCurrentSynset =
-        Integer.parseInt(wordNumberStr.substring(0, 2), 16);
-      int wordNumTargetSynset =
-        Integer.parseInt(wordNumberStr.substring(2), 16);
+      String ptrSymbol = parser.nextSymbol();
+      long synsetOffset = parser.nextLong();
+      char pos = parser.nextChar();
+      
+      // The source and target word numbers are two hex digits each
+      final int wordNumbers = parser.nextHex();
+      int wordNumCurrentSynset = (wordNumbers >> 8);
+      int wordNumTargetSynset = (wordNumbers & 0xFF);
       
       // Build our pointer object
       Pointer ptr = new Pointer(ptrSymbol, synsetOffset,
@@ -183,18 +202,18 @@ final class ParseDataFile
     if (data.getPOS().equals(PartOfSpeech.VERB))
     {
       // Read the frame count
-      final int nFrameCount = Integer.parseInt(st.nextToken());
+      final int nFrameCount = parser.nextInt();
       data.setFrameCount(nFrameCount);
       
       nIndex = 0;
       while (nIndex < nFrameCount)
       {
         // Read the +
-        st.nextToken();
+        parser.skipToken();
         
         // Read the frame information
-        final int frameNum = Integer.parseInt(st.nextToken());
-        final int wordNum = Integer.parseInt(st.nextToken(), 16);
+        final int frameNum = parser.nextInt();
+        final int wordNum = parser.nextHex();
         FrameData frame = new FrameData(frameNum, wordNum);
         data.addFrame(frame);
         
@@ -203,11 +222,10 @@ final class ParseDataFile
     }
     
     // Get token 8
-    final String bar = st.nextToken(); // Skip the "|"
-    if (bar.equals("|"))
+    if (parser.nextTokenIs('|')) // Skip the "|"
     {
       // Get all words from this point forward
-      data.setGloss(st.restOfString());
+      data.setGloss(parser.restOfLine());
     }
     
     return true;
@@ -257,24 +275,26 @@ final class ParseDataFile
     List<Synset> listData = new ArrayList<Synset>(500);
     
     // Read the input file
-    BufferedReader reader = null;
+    ChannelLineReader reader = null;
     try
     {
-      reader = new BufferedReader(new java.io.FileReader(file));
-      String str;
-      while ((str = reader.readLine()) != null)
+      reader = new ChannelLineReader(
+                     new FileInputStream(file).getChannel(), 0L);
+      while (reader.nextLine())
       {
         // Check if we should process this line
-        if ((str.length() < 1) || (str.charAt(0) == ' '))
+        final ByteLineParser parser = reader.getParser();
+        if ((parser.isEmpty()) || (parser.peek() == ' '))
         {
           continue;
         }
         
-        // Declare the synset to fill in
+        // Declare the synset to fill in, which is loaded from this line
         Synset data = new Synset();
+        data.setLoaded(true);
         
         // Parse the line and populate the values
-        if (process(str, data))
+        if (process(parser, data))
         {
           // Add the item to the list
           listData.add(data);
@@ -299,16 +319,8 @@ final class ParseDataFile
     {
       if (reader != null)
       {
-        try
-        {
-          reader.close();
-          reader = null;
-        }
-        catch (Exception e)
-        {
-          // Nothing to do here
-          reader = null;
-        }
+        reader.close();
+        reader = null;
       }
     }
     
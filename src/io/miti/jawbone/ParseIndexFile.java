@@ -28,15 +28,11 @@
 
 package io.miti.jawbone;
 
-import io.miti.jawbone.filter.ExactMatchFilter;
+import io.miti.jawbone.filter.MetadataFilter;
 import io.miti.jawbone.filter.TermFilter;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * This class demonstrates how to parse the WordNet index
@@ -57,49 +53,70 @@ public final class ParseIndexFile
   
   
   /**
-   * Simple method to write a message to standard error.
+   * Parse a line from the input file and store the
+   * data in a structure.
    * 
-   * @param msg the string to write out
+   * @param line the input line to parse
+   * @return the IndexTerm object for the line
    */
-  private static void writeErr(final String msg)
+  static IndexTerm process(final String line)
   {
-    System.err.println(msg);
+    // Check the input
+    if ((line == null) || (line.length() < 1))
+    {
+      return null;
+    }
+    
+    ByteLineParser parser = new ByteLineParser(line);
+    return process(parser, parser.nextLemma(), null);
   }
   
   
   /**
-   * Parse a line from the input file and store the
-   * data in a structure.
+   * Parse a line from the input file and store the data in a
+   * structure, if it passes the filter.  The lemma (the first
+   * token) has already been read from the line, and the filter
+   * is checked against it before the rest of the line is parsed.
+   * If the filter is a MetadataFilter, its check of the term is
+   * made as soon as the fields it needs have been parsed.
    * 
-   * @param line the input line to parse
-   * @return the IndexTerm object for the line
+   * @param parser the parser for the line, positioned after the lemma
+   * @param lemma the lemma at the start of the line
+   * @param filter the filter to apply (null for no filter)
+   * @return the IndexTerm object for the line, or null if
+   *         the filter rejects it
    */
-  private static IndexTerm process(final String line)
+  static IndexTerm process(final ByteLineParser parser,
+                           final String lemma,
+                           final TermFilter filter)
   {
-    // Check the input
-    if ((line == null) || (line.length() < 1))
+    // Check the filter before parsing the rest of the line
+    if ((filter != null) && (!filter.accept(lemma)))
     {
       return null;
     }
     
+    // Get the fields needed by a metadata filter
+    final MetadataFilter metaFilter = ((filter instanceof MetadataFilter) ?
+                                          (MetadataFilter) filter : null);
+    final int lastField = ((metaFilter == null) ? 0 :
+                  Integer.highestOneBit(metaFilter.getRequiredFields()));
+    
     // Declare the object we want to populate
     IndexTerm data = new IndexTerm();
     
-    // Split the line based on the space characters
-    LineSplitter st = new LineSplitter(line, ' ');
-    
     // Get token 0
-    data.setLemma(st.nextToken());
+    data.setLemma(lemma);
     
     // Get token 1
-    data.setPartOfSpeech(st.nextToken().charAt(0));
+    data.setPartOfSpeech(parser.nextChar());
     
     // Get token 3
-    int nNumSynsets = Integer.parseInt(st.nextToken());
+    int nNumSynsets = parser.nextInt();
     data.setSynsetCount(nNumSynsets);
     
     // Get token 4
-    final int nNumPointers = Integer.parseInt(st.nextToken());
+    final int nNumPointers = parser.nextInt();
     data.setPointerCount(nNumPointers);
     
     // Get token 5
@@ -107,30 +124,51 @@ public final class ParseIndexFile
     while (nIndex < nNumPointers)
     {
       // Parse the pointer data
-      String ptrSymbol = st.nextToken();
+      String ptrSymbol = parser.nextSymbol();
       data.setPointerSymbol(nIndex, ptrSymbol);
       
       // Increment the index counter
       ++nIndex;
     }
     
+    // Check the metadata filter, if it has the fields it needs
+    if ((lastField != 0) && (lastField <= MetadataFilter.FIELD_POINTERS) &&
+        (!metaFilter.accept(data)))
+    {
+      return null;
+    }
+    
     // Get token 6, but ignore it
-    st.nextToken();
+    parser.skipToken();
     
     // Get token 7
-    final int nTagSenseCount = Integer.parseInt(st.nextToken());
+    final int nTagSenseCount = parser.nextInt();
     data.setTagSenseCount(nTagSenseCount);
     
+    // Check the metadata filter, if it has the fields it needs
+    if ((lastField == MetadataFilter.FIELD_TAG_SENSE_COUNT) &&
+        (!metaFilter.accept(data)))
+    {
+      return null;
+    }
+    
     // Get token 8
     nIndex = 0;
     while (nIndex < nNumSynsets)
     {
-      final int synsetOffset = Integer.parseInt(st.nextToken());
+      final long synsetOffset = parser.nextLong();
       data.setSynsetOffset(nIndex, synsetOffset);
       
       ++nIndex;
     }
     
+    // Check the metadata filter, if it needs all of the fields
+    if ((lastField > MetadataFilter.FIELD_TAG_SENSE_COUNT) &&
+        (!metaFilter.accept(data)))
+    {
+      return null;
+    }
+    
     return data;
   }
   
@@ -146,16 +184,61 @@ public final class ParseIndexFile
   protected static List<IndexTerm> parseFile(final PartOfSpeech pos,
                                              final int maxLimit,
                                              final TermFilter filter)
+  {
+    return openFile(pos, maxLimit, filter).toList();
+  }
+  
+  
+  /**
+   * Opens the input file and returns a cursor that parses each
+   * line as the next matching term is requested.
+   * 
+   * @param pos the part of speech (determines the input filename)
+   * @param maxLimit the maximum number of results to return (-1 for no limit)
+   * @param filter the filter to apply to the search results
+   * @return the cursor over the matching search results
+   */
+  static IndexTermCursor openFile(final PartOfSpeech pos,
+                                  final int maxLimit,
+                                  final TermFilter filter)
+  {
+    // Search only the matching part of the file, if the filter allows it
+    return new IndexFileCursor(getIndexFile(pos), maxLimit, filter,
+                               Dictionary.getUseBinarySearch());
+  }
+  
+  
+  /**
+   * Returns a Spliterator over the terms in the input file
+   * that match the filter, which can be split into ranges of
+   * lines for a parallel search.
+   * 
+   * @param pos the part of speech (determines the input filename)
+   * @param filter the filter to apply to the search results
+   * @return the spliterator over the matching search results
+   */
+  static IndexFileSpliterator splitFile(final PartOfSpeech pos,
+                                        final TermFilter filter)
+  {
+    return new IndexFileSpliterator(getIndexFile(pos), filter,
+                                    Dictionary.getUseBinarySearch());
+  }
+  
+  
+  /**
+   * Return the index file for the part of speech, after
+   * checking that it exists.
+   * 
+   * @param pos the part of speech (determines the input filename)
+   * @return the index file
+   */
+  private static File getIndexFile(final PartOfSpeech pos)
   {
     // Check the input parameter
     if (pos == null)
     {
       throw new RuntimeException("The part of speech is null");
     }
-    else if (maxLimit == 0)
-    {
-      return new ArrayList<IndexTerm>(1);
-    }
     
     // Get the input filename
     final String inputFile = Utility.getFilename(pos, true);
@@ -182,82 +265,7 @@ public final class ParseIndexFile
       throw new RuntimeException("The data file is not a file");
     }
     
-    // Declare our list to return
-    List<IndexTerm> listData = null;
-    if (maxLimit > 0)
-    {
-      // A maximum size was specified
-      listData = new ArrayList<IndexTerm>(maxLimit);
-    }
-    else
-    {
-      // No maximum size was specified
-      listData = new ArrayList<IndexTerm>(500);
-    }
-    
-    // Read the input file
-    BufferedReader reader = null;
-    try
-    {
-      reader = new BufferedReader(new java.io.FileReader(file));
-      String str;
-      while ((str = reader.readLine()) != null)
-      {
-        // Check if we should process this line
-        if ((str.length() < 1) || (str.charAt(0) == ' '))
-        {
-          continue;
-        }
-        
-        IndexTerm data = process(str);
-        if (data != null)
-        {
-          // Check the filter
-          if ((filter == null) || (filter.accept(data.getLemma())))
-          {
-            // Save the object
-            listData.add(data);
-            
-            // See if we've hit the limit
-            if ((maxLimit > 0) && (listData.size() >= maxLimit))
-            {
-              break;
-            }
-          }
-        }
-      }
-      
-      reader.close();
-      reader = null;
-    }
-    catch (FileNotFoundException fnfe)
-    {
-      // Write an error message
-      writeErr("File Not Found: " + fnfe.getMessage());
-    }
-    catch (IOException ioe)
-    {
-      // Write an error message
-      writeErr("Exception reading: " + ioe.getMessage());
-    }
-    finally
-    {
-      if (reader != null)
-      {
-        try
-        {
-          reader.close();
-          reader = null;
-        }
-        catch (Exception e)
-        {
-          // Nothing to do here
-          reader = null;
-        }
-      }
-    }
-    
-    return listData;
+    return file;
   }
   
   
@@ -265,6 +273,11 @@ public final class ParseIndexFile
    * Return the sense number (from the index file) of the specified
    * word and part of speech.  It does this by finding a matching
    * on the offset in the list of offsets associated with this word.
+   * If a snapshot is open or the index files are kept in memory,
+   * the term is found with a binary search; otherwise the sense
+   * numbers are read from an index built the first time one is
+   * requested.  The word may have capital letters or a syntactic
+   * marker, as it does in the data files.
    * 
    * @param word the word to search for
    * @param pos the part of speech
@@ -275,22 +288,30 @@ public final class ParseIndexFile
                                    final PartOfSpeech pos,
                                    final long offset)
   {
+    // Use the copy of the index in memory, if it's available
+    final Dictionary dict = Dictionary.getInstance();
+    IndexTermTable table = dict.getIndexTable(pos);
+    if (table == null)
+    {
+      return dict.getSenseIndex().getSenseNumber(word, pos, offset);
+    }
+    
     // This is the variable that gets returned
     int senseNum = 0;
     
-    // Find the term in the index file
-    List<IndexTerm> terms = parseFile(pos, 1, new ExactMatchFilter(word, false));
-    if ((terms == null) || (terms.size() < 1))
+    // Find the term in the index
+    IndexTerm term = table.lookup(SenseIndex.getLemma(word));
+    if (term == null)
     {
       // The term was not found.  This should not happen.
       return senseNum;
     }
     
-    // Get the synsets for the first term (there's only one term in the list)
-    Synset[] sets = terms.get(0).getSynsets();
-    for (int index = 0; index < sets.length; ++index)
+    // Get the synset offsets for the term
+    final int nNumSynsets = term.getSynsetCount();
+    for (int index = 0; index < nNumSynsets; ++index)
     {
-      if (sets[index].getSynsetOffset() == offset)
+      if (term.getSynsetOffset(index) == offset)
       {
         // Save the index (this is 1-based, so add 1)
         senseNum = index + 1;
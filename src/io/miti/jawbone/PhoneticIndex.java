@@ -0,0 +1,127 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.PhoneticEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class indexes the lemmas in a table of index terms by
+ * their phonetic codes, computed once with one encoder, so the
+ * terms that sound like a word are found with one lookup of its
+ * code.  The codes are indexed in upper case, so the candidates
+ * for a code include the matches with or without ignoring case;
+ * the filter still checks each of them.
+ * 
+ * @author mwallace
+ */
+final class PhoneticIndex
+{
+  /**
+   * The encoder for the codes.
+   */
+  private final PhoneticEncoder encoder;
+  
+  /**
+   * The IDs of the terms for each code, in increasing order.
+   */
+  private final Map<String, int[]> termIDs;
+  
+  
+  /**
+   * Constructor taking the table to index and the encoder.
+   * 
+   * @param table the table of index terms
+   * @param phoneticEncoder the encoder for the codes
+   */
+  PhoneticIndex(final IndexTermTable table, final PhoneticEncoder phoneticEncoder)
+  {
+    encoder = phoneticEncoder;
+    
+    // Compute the code of each lemma, and count the terms for each code
+    final int nSize = table.size();
+    final String[] codes = new String[nSize];
+    final Map<String, int[]> counts = new HashMap<String, int[]>();
+    for (int id = 0; id < nSize; ++id)
+    {
+      codes[id] = encoder.encode(table.getLemma(id)).toUpperCase();
+      int[] count = counts.get(codes[id]);
+      if (count == null)
+      {
+        count = new int[1];
+        counts.put(codes[id], count);
+      }
+      
+      ++count[0];
+    }
+    
+    // Fill in the term IDs, in increasing order, reusing the
+    // counts as the number filled in for each code
+    termIDs = new HashMap<String, int[]>((counts.size() * 4) / 3 + 1);
+    for (Map.Entry<String, int[]> entry : counts.entrySet())
+    {
+      termIDs.put(entry.getKey(), new int[entry.getValue()[0]]);
+      entry.getValue()[0] = 0;
+    }
+    
+    for (int id = 0; id < nSize; ++id)
+    {
+      final int[] next = counts.get(codes[id]);
+      termIDs.get(codes[id])[next[0]++] = id;
+    }
+  }
+  
+  
+  /**
+   * Return the encoder for the codes.
+   * 
+   * @return the encoder
+   */
+  PhoneticEncoder getEncoder()
+  {
+    return encoder;
+  }
+  
+  
+  /**
+   * Return the IDs of the terms with lemmas that have a code,
+   * in increasing order.
+   * 
+   * @param code the code
+   * @return the IDs of the matching terms
+   */
+  IndexTermTable.Candidates find(final String code)
+  {
+    final int[] ids = termIDs.get(code.toUpperCase());
+    return ((ids == null) ? new IndexTermTable.Candidates(0, 0)
+                          : new IndexTermTable.Candidates(ids, ids.length));
+  }
+}
@@ -62,6 +62,17 @@ public final class Pointer
    */
   private int targetSynsetWordNumber = 0;
   
+  /**
+   * The snapshot holding this pointer, if this is a view of a
+   * synset record in a snapshot.
+   */
+  private Snapshot store = null;
+  
+  /**
+   * The position of this pointer in the snapshot.
+   */
+  private int position = -1;
+  
   
   /**
    * The default constructor.
@@ -94,7 +105,40 @@ public final class Pointer
     targetSynsetWordNumber = nTargetSynsetWordNumber;
     
     // this.synsetOffset = lSynsetOffset;
-    synset = new Synset(lSynsetOffset, partOfSpeech);
+    synset = Dictionary.getInstance().getSynset(lSynsetOffset, partOfSpeech);
+  }
+  
+  
+  /**
+   * Constructor for a view of a pointer in a synset record in a
+   * snapshot.  The fields are read from the snapshot each time
+   * they're requested.
+   * 
+   * @param snapshot the snapshot holding the pointer
+   * @param nPosition the position of the pointer in the snapshot
+   */
+  Pointer(final Snapshot snapshot, final int nPosition)
+  {
+    store = snapshot;
+    position = nPosition;
+  }
+  
+  
+  /**
+   * If this is a view of a pointer in a snapshot, copy the fields
+   * from the snapshot, so they can be changed.
+   */
+  private void detach()
+  {
+    if (store != null)
+    {
+      pointerSymbol = getPointerSymbol();
+      partOfSpeech = getPartOfSpeech();
+      sourceSynsetWordNumber = getSourceSynsetWordNumber();
+      targetSynsetWordNumber = getTargetSynsetWordNumber();
+      synset = getSynset();
+      store = null;
+    }
   }
   
   
@@ -103,6 +147,11 @@ public final class Pointer
    */
   public PartOfSpeech getPartOfSpeech()
   {
+    if (store != null)
+    {
+      return PartOfSpeech.getInstance(store.getPointerPosType(position));
+    }
+    
     return partOfSpeech;
   }
   
@@ -112,6 +161,7 @@ public final class Pointer
    */
   protected void setPartOfSpeech(final char cPartOfSpeech)
   {
+    detach();
     this.partOfSpeech = PartOfSpeech.getInstance(cPartOfSpeech);
   }
   
@@ -121,6 +171,11 @@ public final class Pointer
    */
   public String getPointerSymbol()
   {
+    if (store != null)
+    {
+      return store.getPointerSymbol(position);
+    }
+    
     return pointerSymbol;
   }
   
@@ -130,6 +185,7 @@ public final class Pointer
    */
   protected void setPointerSymbol(final String sPointerSymbol)
   {
+    detach();
     pointerSymbol = sPointerSymbol;
   }
   
@@ -139,6 +195,11 @@ public final class Pointer
    */
   public int getSourceSynsetWordNumber()
   {
+    if (store != null)
+    {
+      return store.getPointerSource(position);
+    }
+    
     return sourceSynsetWordNumber;
   }
   
@@ -148,6 +209,7 @@ public final class Pointer
    */
   protected void setSourceSynsetWordNumber(final int nSourceSynsetWordNumber)
   {
+    detach();
     this.sourceSynsetWordNumber = nSourceSynsetWordNumber;
   }
   
@@ -157,6 +219,12 @@ public final class Pointer
    */
   public Synset getSynset()
   {
+    if (store != null)
+    {
+      return Dictionary.getInstance().getSynset(store.getPointerTarget(position),
+                                                getPartOfSpeech());
+    }
+    
     return synset;
   }
   
@@ -166,6 +234,7 @@ public final class Pointer
    */
   protected void setSynset(final Synset sSynset)
   {
+    detach();
     synset = sSynset;
   }
   
@@ -175,6 +244,11 @@ public final class Pointer
    */
   public int getTargetSynsetWordNumber()
   {
+    if (store != null)
+    {
+      return store.getPointerTargetWord(position);
+    }
+    
     return targetSynsetWordNumber;
   }
   
@@ -184,6 +258,7 @@ public final class Pointer
    */
   protected void setTargetSynsetWordNumber(final int nTargetSynsetWordNumber)
   {
+    detach();
     this.targetSynsetWordNumber = nTargetSynsetWordNumber;
   }
   
@@ -411,10 +486,11 @@ public final class Pointer
     StringBuffer buf = new StringBuffer(100);
     
     // Build the string
-    buf.append("Symbol: ").append(pointerSymbol).append("  Synset-Offset: ")
-       .append(synset.getSynsetOffset()).append("  POS: ").append(partOfSpeech)
-       .append("  Source-Word-Number: ").append(sourceSynsetWordNumber)
-       .append("  Target-Word-Number: ").append(targetSynsetWordNumber);
+    buf.append("Symbol: ").append(getPointerSymbol()).append("  Synset-Offset: ")
+       .append(getSynset().getSynsetOffset()).append("  POS: ")
+       .append(getPartOfSpeech())
+       .append("  Source-Word-Number: ").append(getSourceSynsetWordNumber())
+       .append("  Target-Word-Number: ").append(getTargetSynsetWordNumber());
     
     // Return the string
     return buf.toString();
@@ -0,0 +1,256 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the contents of one WordNet index file
+ * (e.g., index.noun) in memory, so searches don't have to
+ * read and parse the file again.  The lemmas are kept in
+ * the sorted order of the index file, and the other fields
+ * of each term are stored in arrays indexed by the term's
+ * position in that order.
+ * 
+ * @author mwallace
+ */
+final class ResidentIndex extends IndexTermTable
+{
+  /**
+   * The part of speech of the terms in the index.
+   */
+  private final PartOfSpeech partOfSpeech;
+  
+  /**
+   * The sorted list of lemmas.
+   */
+  private final String[] lemmas;
+  
+  /**
+   * The tag sense count for each lemma.
+   */
+  private final int[] tagSenseCounts;
+  
+  /**
+   * The position in synsetOffsets of the first synset offset
+   * for each lemma.  This has one more entry than lemmas, so
+   * the number of synsets for a lemma is the difference
+   * between its entry and the next one.
+   */
+  private final int[] synsetStart;
+  
+  /**
+   * The synset offsets of all lemmas.
+   */
+  private final long[] synsetOffsets;
+  
+  /**
+   * The position in pointerSymbols of the first pointer symbol
+   * for each lemma.  This has one more entry than lemmas.
+   */
+  private final int[] pointerStart;
+  
+  /**
+   * The pointer symbols of all lemmas.
+   */
+  private final String[] pointerSymbols;
+  
+  
+  /**
+   * Constructor taking the list of terms in the index file.
+   * 
+   * @param pos the part of speech of the index file
+   * @param terms the terms in the index file
+   */
+  private ResidentIndex(final PartOfSpeech pos, final List<IndexTerm> terms)
+  {
+    // Make sure the terms are sorted the same way as the lookups
+    // expect.  This is the order of the index files, so this
+    // should not need to do any work.
+    final int size = terms.size();
+    for (int i = 1; i < size; ++i)
+    {
+      if (Utility.compareLemmas(terms.get(i - 1).getLemma(),
+                                terms.get(i).getLemma()) > 0)
+      {
+        java.util.Collections.sort(terms, new java.util.Comparator<IndexTerm>()
+        {
+          public int compare(final IndexTerm term1, final IndexTerm term2)
+          {
+            return Utility.compareLemmas(term1.getLemma(), term2.getLemma());
+          }
+        });
+        break;
+      }
+    }
+    
+    // Count the synsets and pointers, so the arrays can be allocated
+    int numSynsets = 0;
+    int numPointers = 0;
+    for (IndexTerm term : terms)
+    {
+      numSynsets += term.getSynsetCount();
+      numPointers += term.getPointerCount();
+    }
+    
+    // Use the part of speech in the file, if there are any terms
+    partOfSpeech = ((size > 0) ? terms.get(0).getPartOfSpeech() : pos);
+    
+    // Allocate the arrays
+    lemmas = new String[size];
+    tagSenseCounts = new int[size];
+    synsetStart = new int[size + 1];
+    synsetOffsets = new long[numSynsets];
+    pointerStart = new int[size + 1];
+    pointerSymbols = new String[numPointers];
+    
+    // Share a single instance of each distinct pointer symbol
+    Map<String, String> symbols = new HashMap<String, String>(50);
+    
+    // Copy the fields of each term into the arrays
+    int nSynset = 0;
+    int nPointer = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      final IndexTerm term = terms.get(i);
+      lemmas[i] = term.getLemma();
+      tagSenseCounts[i] = term.getTagSenseCount();
+      
+      // Save the synset offsets
+      synsetStart[i] = nSynset;
+      final int nNumSynsets = term.getSynsetCount();
+      for (int j = 0; j < nNumSynsets; ++j)
+      {
+        synsetOffsets[nSynset++] = term.getSynsetOffset(j);
+      }
+      
+      // Save the pointer symbols
+      pointerStart[i] = nPointer;
+      final String[] pointers = term.getPointers();
+      final int nNumPointers = term.getPointerCount();
+      for (int j = 0; j < nNumPointers; ++j)
+      {
+        String symbol = symbols.get(pointers[j]);
+        if (symbol == null)
+        {
+          symbol = pointers[j];
+          symbols.put(symbol, symbol);
+        }
+        
+        pointerSymbols[nPointer++] = symbol;
+      }
+    }
+    
+    // Save the end of the last term's entries
+    synsetStart[size] = nSynset;
+    pointerStart[size] = nPointer;
+  }
+  
+  
+  /**
+   * Read the index file for the part of speech into memory.
+   * 
+   * @param pos the part of speech
+   * @return the in-memory copy of the index file
+   */
+  static ResidentIndex load(final PartOfSpeech pos)
+  {
+    // Parse the whole file
+    List<IndexTerm> terms = ParseIndexFile.parseFile(pos, -1, null);
+    
+    // Build the index from the terms
+    return new ResidentIndex(pos, terms);
+  }
+  
+  
+  /**
+   * Return the number of terms in the index.
+   * 
+   * @return the number of terms
+   */
+  @Override
+  int size()
+  {
+    return lemmas.length;
+  }
+  
+  
+  /**
+   * Return the lemma of the term at the specified position.
+   * 
+   * @param id the position of the term
+   * @return the lemma
+   */
+  @Override
+  String getLemma(final int id)
+  {
+    return lemmas[id];
+  }
+  
+  
+  /**
+   * Build an IndexTerm object for the term at the specified
+   * position.
+   * 
+   * @param id the position of the term
+   * @return the IndexTerm object for the term
+   */
+  @Override
+  IndexTerm getTerm(final int id)
+  {
+    // Declare the object we want to populate
+    IndexTerm term = new IndexTerm();
+    term.setLemma(lemmas[id]);
+    term.setPartOfSpeech(partOfSpeech.getShortKey());
+    
+    // Save the pointer symbols
+    final int nFirstPointer = pointerStart[id];
+    final int nNumPointers = pointerStart[id + 1] - nFirstPointer;
+    term.setPointerCount(nNumPointers);
+    for (int i = 0; i < nNumPointers; ++i)
+    {
+      term.setPointerSymbol(i, pointerSymbols[nFirstPointer + i]);
+    }
+    
+    term.setTagSenseCount(tagSenseCounts[id]);
+    
+    // Save the synset offsets
+    final int nFirstSynset = synsetStart[id];
+    final int nNumSynsets = synsetStart[id + 1] - nFirstSynset;
+    term.setSynsetCount(nNumSynsets);
+    for (int i = 0; i < nNumSynsets; ++i)
+    {
+      term.setSynsetOffset(i, synsetOffsets[nFirstSynset + i]);
+    }
+    
+    return term;
+  }
+}
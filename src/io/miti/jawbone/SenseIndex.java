@@ -0,0 +1,286 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the sense numbers of the words in each
+ * synset, so a sense number can be found without searching
+ * the index file.  For each part of speech, it maps each lemma
+ * to the offsets of its synsets, in the order of its senses.
+ * It's built in one pass, from index.sense if that file is in
+ * the data directory, or else from the index files.
+ * 
+ * @author mwallace
+ */
+final class SenseIndex
+{
+  /**
+   * The name of the file listing the sense keys.
+   */
+  static final String SENSE_FILE = "index.sense";
+  
+  /**
+   * The synset offsets of each lemma, in order of sense number,
+   * indexed by the position of the part of speech in the list
+   * of files.
+   */
+  private final List<Map<String, long[]>> senses;
+  
+  
+  /**
+   * Constructor.
+   */
+  private SenseIndex()
+  {
+    final int nCount = Utility.getFileCount();
+    senses = new ArrayList<Map<String, long[]>>(nCount);
+    for (int i = 0; i < nCount; ++i)
+    {
+      senses.add(new HashMap<String, long[]>(10000));
+    }
+  }
+  
+  
+  /**
+   * Build the sense index for the data files in the directory.
+   * 
+   * @param path the directory containing the data files
+   * @return the sense index
+   */
+  static SenseIndex load(final String path)
+  {
+    SenseIndex index = new SenseIndex();
+    File senseFile = new File(path, SENSE_FILE);
+    if ((!senseFile.isFile()) || (!index.loadSenseFile(senseFile)))
+    {
+      index.loadIndexFiles();
+    }
+    
+    return index;
+  }
+  
+  
+  /**
+   * Return the lemma for a word in a synset, as it appears in
+   * the index files.  The words in the data files may have
+   * capital letters, and adjectives may end with a syntactic
+   * marker such as "(a)".
+   * 
+   * @param word the word from the synset
+   * @return the lemma for the word
+   */
+  static String getLemma(final String word)
+  {
+    String lemma = word;
+    final int nLen = lemma.length();
+    if ((nLen > 3) && (lemma.charAt(nLen - 1) == ')'))
+    {
+      final int nStart = lemma.lastIndexOf('(');
+      if (nStart > 0)
+      {
+        lemma = lemma.substring(0, nStart);
+      }
+    }
+    
+    return lemma.toLowerCase();
+  }
+  
+  
+  /**
+   * Return the position in the list of files of the part of
+   * speech with the specified synset type in a sense key.
+   * 
+   * @param ssType the synset type (1 to 5)
+   * @return the position of the part of speech, or -1 if it's invalid
+   */
+  static int getFileIndex(final int ssType)
+  {
+    switch (ssType)
+    {
+      case 1:
+        return Utility.getFileIndex(PartOfSpeech.NOUN);
+      case 2:
+        return Utility.getFileIndex(PartOfSpeech.VERB);
+      case 3:
+      case 5:
+        return Utility.getFileIndex(PartOfSpeech.ADJECTIVE);
+      case 4:
+        return Utility.getFileIndex(PartOfSpeech.ADVERB);
+      default:
+        return -1;
+    }
+  }
+  
+  
+  /**
+   * Return the sense number of a word in a synset.
+   * 
+   * @param word the word (as it appears in the synset)
+   * @param pos the part of speech
+   * @param offset the offset of the synset
+   * @return the sense number (1-based), or 0 if it's not found
+   */
+  int getSenseNumber(final String word,
+                     final PartOfSpeech pos,
+                     final long offset)
+  {
+    final Map<String, long[]> lemmas = senses.get(Utility.getFileIndex(pos));
+    final long[] offsets = lemmas.get(getLemma(word));
+    if (offsets != null)
+    {
+      for (int i = 0; i < offsets.length; ++i)
+      {
+        if (offsets[i] == offset)
+        {
+          return (i + 1);
+        }
+      }
+    }
+    
+    return 0;
+  }
+  
+  
+  /**
+   * Save the sense number of a lemma in a synset.
+   * 
+   * @param index the position of the part of speech in the list of files
+   * @param lemma the lemma
+   * @param offset the offset of the synset
+   * @param senseNum the sense number (1-based)
+   */
+  private void addSense(final int index,
+                        final String lemma,
+                        final long offset,
+                        final int senseNum)
+  {
+    long[] offsets = senses.get(index).get(lemma);
+    if ((offsets == null) || (offsets.length < senseNum))
+    {
+      long[] larger = new long[senseNum];
+      if (offsets != null)
+      {
+        System.arraycopy(offsets, 0, larger, 0, offsets.length);
+      }
+      offsets = larger;
+      senses.get(index).put(lemma, offsets);
+    }
+    
+    offsets[senseNum - 1] = offset;
+  }
+  
+  
+  /**
+   * Read the sense numbers from index.sense.  Each line has a
+   * sense key (the lemma, then '%' and the synset type), the
+   * synset offset, and the sense number.
+   * 
+   * @param file the index.sense file
+   * @return whether the file was read
+   */
+  private boolean loadSenseFile(final File file)
+  {
+    ChannelLineReader reader = null;
+    try
+    {
+      reader = new ChannelLineReader(
+                     new FileInputStream(file).getChannel(), 0L);
+      while (reader.nextLine())
+      {
+        final ByteLineParser parser = reader.getParser();
+        if (parser.isEmpty())
+        {
+          continue;
+        }
+        
+        // Split the sense key into the lemma and the synset type
+        final String key = parser.nextToken();
+        final int nPct = key.indexOf('%');
+        if ((nPct < 1) || (nPct >= (key.length() - 1)))
+        {
+          continue;
+        }
+        
+        final int index = getFileIndex(key.charAt(nPct + 1) - '0');
+        final long offset = parser.nextLong();
+        final int senseNum = parser.nextInt();
+        if ((index >= 0) && (senseNum > 0))
+        {
+          addSense(index, key.substring(0, nPct).replace('_', ' '),
+                   offset, senseNum);
+        }
+      }
+      
+      return true;
+    }
+    catch (IOException ioe)
+    {
+      // Write an error message
+      System.err.println("Exception reading: " + ioe.getMessage());
+    }
+    finally
+    {
+      if (reader != null)
+      {
+        reader.close();
+        reader = null;
+      }
+    }
+    
+    return false;
+  }
+  
+  
+  /**
+   * Read the sense numbers from the index files.  The senses
+   * of a lemma are listed in order of sense number.
+   */
+  private void loadIndexFiles()
+  {
+    for (int i = 0; i < senses.size(); ++i)
+    {
+      senses.get(i).clear();
+      final PartOfSpeech pos = Utility.getFilePartOfSpeech(i);
+      IndexTermCursor cursor = ParseIndexFile.openFile(pos, -1, null);
+      while (cursor.hasNext())
+      {
+        IndexTerm term = cursor.next();
+        senses.get(i).put(term.getLemma(), term.getSynsetOffsets());
+      }
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class maps WordNet sense keys to the offsets of their
+ * synsets, using the index.sense file.  A sense key has the form
+ * lemma%ss_type:lex_filenum:lex_id:head_word:head_id, where the
+ * ss_type (1 to 5) identifies the part of speech, and the last
+ * two fields are only set for adjective satellites.  The whole
+ * file is read into a hash table once, so each lookup is a
+ * single hash lookup.
+ * 
+ * @author mwallace
+ */
+final class SenseKeyIndex
+{
+  /**
+   * The offset of the synset for each sense key.
+   */
+  private final Map<String, Long> offsets;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param nSize the expected number of sense keys
+   */
+  private SenseKeyIndex(final int nSize)
+  {
+    offsets = new HashMap<String, Long>(nSize);
+  }
+  
+  
+  /**
+   * Read index.sense from the data directory.
+   * 
+   * @param path the directory containing the data files
+   * @return the sense key index, or null if index.sense can't be read
+   */
+  static SenseKeyIndex load(final String path)
+  {
+    File file = new File(path, SenseIndex.SENSE_FILE);
+    if (!file.isFile())
+    {
+      return null;
+    }
+    
+    // Size the table from the length of the file (a line is 35 to 50 bytes)
+    SenseKeyIndex index = new SenseKeyIndex((int) (file.length() / 35L));
+    ChannelLineReader reader = null;
+    try
+    {
+      reader = new ChannelLineReader(
+                     new FileInputStream(file).getChannel(), 0L);
+      while (reader.nextLine())
+      {
+        final ByteLineParser parser = reader.getParser();
+        if (!parser.isEmpty())
+        {
+          final String key = parser.nextToken();
+          index.offsets.put(key, Long.valueOf(parser.nextLong()));
+        }
+      }
+    }
+    catch (IOException ioe)
+    {
+      // Write an error message
+      System.err.println("Exception reading: " + ioe.getMessage());
+      index = null;
+    }
+    finally
+    {
+      if (reader != null)
+      {
+        reader.close();
+        reader = null;
+      }
+    }
+    
+    return index;
+  }
+  
+  
+  /**
+   * Return the offset of the synset for the sense key.
+   * 
+   * @param senseKey the sense key
+   * @return the offset of the synset, or -1 if it's not found
+   */
+  long getOffset(final String senseKey)
+  {
+    final Long offset = offsets.get(senseKey);
+    return ((offset == null) ? -1L : offset.longValue());
+  }
+  
+  
+  /**
+   * Return the part of speech in a sense key.
+   * 
+   * @param senseKey the sense key
+   * @return the part of speech, or null if the key is invalid
+   */
+  static PartOfSpeech getPartOfSpeech(final String senseKey)
+  {
+    final int nPct = senseKey.indexOf('%');
+    if ((nPct < 1) || (nPct >= (senseKey.length() - 1)))
+    {
+      return null;
+    }
+    
+    switch (senseKey.charAt(nPct + 1))
+    {
+      case '1':
+        return PartOfSpeech.NOUN;
+      case '2':
+        return PartOfSpeech.VERB;
+      case '3':
+        return PartOfSpeech.ADJECTIVE;
+      case '4':
+        return PartOfSpeech.ADVERB;
+      case '5':
+        return PartOfSpeech.ADJECTIVE_SATELLITE;
+      default:
+        return null;
+    }
+  }
+  
+  
+  /**
+   * Return the lemma in a sense key, as it appears in the
+   * index files (with spaces instead of underscores).
+   * 
+   * @param senseKey the sense key
+   * @return the lemma
+   */
+  static String getLemma(final String senseKey)
+  {
+    final int nPct = senseKey.indexOf('%');
+    return ((nPct < 0) ? senseKey : senseKey.substring(0, nPct))
+             .replace('_', ' ');
+  }
+  
+  
+  /**
+   * Return the synset type of a part of speech, as it's written
+   * in a sense key.
+   * 
+   * @param pos the part of speech
+   * @return the synset type (1 to 5)
+   */
+  private static int getSynsetType(final PartOfSpeech pos)
+  {
+    switch (pos.getShortKey())
+    {
+      case 'n':
+        return 1;
+      case 'v':
+        return 2;
+      case 'a':
+        return 3;
+      case 'r':
+        return 4;
+      default:
+        return 5;
+    }
+  }
+  
+  
+  /**
+   * Append a number to the buffer, as at least two digits.
+   * 
+   * @param buf the buffer
+   * @param num the number
+   */
+  private static void appendTwoDigits(final StringBuilder buf, final int num)
+  {
+    if (num < 10)
+    {
+      buf.append('0');
+    }
+    buf.append(num);
+  }
+  
+  
+  /**
+   * Return the sense key of a word in a synset.
+   * 
+   * @param word the word
+   * @param synset the synset containing the word
+   * @return the sense key
+   */
+  static String getSenseKey(final WordData word, final Synset synset)
+  {
+    final PartOfSpeech pos = synset.getPOS();
+    final int ssType = getSynsetType(pos);
+    
+    // Build the lemma, synset type, lexicographer file and lexical ID
+    StringBuilder buf = new StringBuilder(40);
+    buf.append(SenseIndex.getLemma(word.getWord()).replace(' ', '_'))
+       .append('%').append(ssType).append(':');
+    appendTwoDigits(buf, synset.getLexFilenum());
+    buf.append(':');
+    appendTwoDigits(buf, word.getLexID());
+    buf.append(':');
+    
+    // For an adjective satellite, add the first word of the head synset
+    WordData head = null;
+    if (ssType == 5)
+    {
+      List<Synset> heads = synset.getRelatedSynsets("&");
+      if ((heads != null) && (!heads.isEmpty()))
+      {
+        List<WordData> headWords = heads.get(0).getWord();
+        if ((headWords != null) && (!headWords.isEmpty()))
+        {
+          head = headWords.get(0);
+        }
+      }
+    }
+    
+    if (head == null)
+    {
+      buf.append(':');
+    }
+    else
+    {
+      buf.append(SenseIndex.getLemma(head.getWord()).replace(' ', '_'))
+         .append(':');
+      appendTwoDigits(buf, head.getLexID());
+    }
+    
+    return buf.toString();
+  }
+}
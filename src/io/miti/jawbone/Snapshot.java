@@ -0,0 +1,1043 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This class reads a compiled snapshot of the WordNet index
+ * and data files, written by SnapshotWriter.  The snapshot is
+ * mapped into memory and read in place, so opening it only
+ * needs to read the header.  All reads use absolute positions,
+ * so a snapshot can be shared by threads.
+ * <p>
+ * The file starts with a header (magic number, version, and
+ * the length, modification time and CRC-32 of each source
+ * file), followed by a table of the offset and length of each
+ * section.  The sections are the lemma table, the pointer
+ * symbol table, the index terms of each part of speech, the
+ * synset records of each part of speech, the words in the
+ * synsets, and the glosses.
+ * 
+ * @author mwallace
+ */
+final class Snapshot
+{
+  /**
+   * The number at the start of every snapshot file.
+   */
+  static final int MAGIC = 0x4A415742;
+  
+  /**
+   * The version of the snapshot format.
+   */
+  static final int VERSION = 1;
+  
+  /**
+   * The section holding the sorted table of all lemmas.
+   */
+  static final int SECTION_LEMMAS = 0;
+  
+  /**
+   * The section holding the table of pointer symbols.
+   */
+  static final int SECTION_SYMBOLS = 1;
+  
+  /**
+   * The first of the sections holding the index terms, one for
+   * each part of speech, in the order of the list of files.
+   */
+  static final int SECTION_INDEX = 2;
+  
+  /**
+   * The first of the sections holding the synset records, one
+   * for each part of speech, in the order of the list of files.
+   */
+  static final int SECTION_SYNSETS = SECTION_INDEX + Utility.getFileCount();
+  
+  /**
+   * The section holding the words in the synsets.
+   */
+  static final int SECTION_WORDS = SECTION_SYNSETS + Utility.getFileCount();
+  
+  /**
+   * The section holding the glosses.
+   */
+  static final int SECTION_GLOSSES = SECTION_WORDS + 1;
+  
+  /**
+   * The number of sections.
+   */
+  static final int NUM_SECTIONS = SECTION_GLOSSES + 1;
+  
+  /**
+   * The size of the fixed fields at the start of a synset record.
+   */
+  static final int RECORD_SIZE = 16;
+  
+  /**
+   * The size of each word in a synset record.
+   */
+  static final int WORD_SIZE = 11;
+  
+  /**
+   * The size of each pointer in a synset record.
+   */
+  static final int POINTER_SIZE = 9;
+  
+  /**
+   * The size of each frame in a synset record.
+   */
+  static final int FRAME_SIZE = 2;
+  
+  /**
+   * The contents of the snapshot file.
+   */
+  private final ByteBuffer buffer;
+  
+  /**
+   * The offset of the start of each section.
+   */
+  private final int[] sectionStart = new int[NUM_SECTIONS];
+  
+  /**
+   * The number of lemmas in the lemma table.
+   */
+  private final int lemmaCount;
+  
+  /**
+   * The offset of each lemma in the lemma table.
+   */
+  private final IntBuffer lemmaOffsets;
+  
+  /**
+   * The lemmas that have been read from the lemma table.
+   */
+  private final String[] lemmaCache;
+  
+  /**
+   * The pointer symbols.
+   */
+  private final String[] symbols;
+  
+  /**
+   * The index terms of each part of speech.
+   */
+  private final SnapshotIndex[] indexes;
+  
+  /**
+   * The number of synsets of each part of speech.
+   */
+  private final int[] synsetCounts;
+  
+  /**
+   * The sorted data file offsets of the synsets of each part
+   * of speech.
+   */
+  private final IntBuffer[] synsetOffsets;
+  
+  /**
+   * The position of the record for each synset, relative to
+   * the start of the records for the part of speech.
+   */
+  private final IntBuffer[] synsetRecords;
+  
+  /**
+   * The offset of the start of the records for each part of speech.
+   */
+  private final int[] recordsStart;
+  
+  
+  /**
+   * Constructor taking the mapped contents of the file.
+   * 
+   * @param mapped the contents of the snapshot file
+   * @param headerEnd the offset of the section table
+   */
+  private Snapshot(final ByteBuffer mapped, final int headerEnd)
+  {
+    buffer = mapped;
+    
+    // Read the section table
+    for (int i = 0; i < NUM_SECTIONS; ++i)
+    {
+      sectionStart[i] = buffer.getInt(headerEnd + 4 + (i * 8));
+    }
+    
+    // Read the lemma table
+    int start = sectionStart[SECTION_LEMMAS];
+    lemmaCount = buffer.getInt(start);
+    lemmaOffsets = getIntBuffer(buffer, start + 4, lemmaCount + 1);
+    lemmaCache = new String[lemmaCount];
+    
+    // Read the pointer symbols
+    start = sectionStart[SECTION_SYMBOLS];
+    final int numSymbols = buffer.getInt(start);
+    IntBuffer symbolOffsets = getIntBuffer(buffer, start + 4, numSymbols + 1);
+    final int symbolsStart = start + 4 + ((numSymbols + 1) * 4);
+    symbols = new String[numSymbols];
+    for (int i = 0; i < numSymbols; ++i)
+    {
+      final int offset = symbolOffsets.get(i);
+      symbols[i] = getString(symbolsStart + offset,
+                             symbolOffsets.get(i + 1) - offset);
+    }
+    
+    // Read the index terms and the synset offsets
+    final int numFiles = Utility.getFileCount();
+    indexes = new SnapshotIndex[numFiles];
+    synsetCounts = new int[numFiles];
+    synsetOffsets = new IntBuffer[numFiles];
+    synsetRecords = new IntBuffer[numFiles];
+    recordsStart = new int[numFiles];
+    for (int i = 0; i < numFiles; ++i)
+    {
+      indexes[i] = new SnapshotIndex(this, Utility.getFilePartOfSpeech(i),
+                                     sectionStart[SECTION_INDEX + i]);
+      
+      start = sectionStart[SECTION_SYNSETS + i];
+      synsetCounts[i] = buffer.getInt(start);
+      synsetOffsets[i] = getIntBuffer(buffer, start + 4, synsetCounts[i]);
+      synsetRecords[i] = getIntBuffer(buffer, start + 4 + (synsetCounts[i] * 4),
+                                      synsetCounts[i]);
+      recordsStart[i] = start + 4 + (synsetCounts[i] * 8);
+    }
+  }
+  
+  
+  /**
+   * Open a snapshot file.  The snapshot is only used if it was
+   * compiled from the data files in the specified directory,
+   * and they have not changed since.
+   * 
+   * @param snapshotFile the name of the snapshot file
+   * @param path the directory containing the data files
+   * @return the snapshot, or null if it could not be used
+   */
+  static Snapshot open(final String snapshotFile, final String path)
+  {
+    // Verify the file exists
+    File file = new File(snapshotFile);
+    if (!file.isFile())
+    {
+      System.err.println("The snapshot file does not exist: " + snapshotFile);
+      return null;
+    }
+    
+    // Map the file
+    Snapshot snapshot = null;
+    RandomAccessFile raf = null;
+    try
+    {
+      raf = new RandomAccessFile(file, "r");
+      FileChannel channel = raf.getChannel();
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                                      0L, channel.size());
+      
+      // Check the header
+      if ((mapped.limit() < 8) || (mapped.getInt(0) != MAGIC))
+      {
+        System.err.println("The file is not a snapshot: " + snapshotFile);
+      }
+      else if (mapped.getInt(4) != VERSION)
+      {
+        System.err.println("The snapshot has an unsupported version: " +
+                           snapshotFile);
+      }
+      else
+      {
+        // Check the data files match the ones it was compiled from
+        final int headerEnd = checkFingerprint(mapped, path);
+        if (headerEnd < 0)
+        {
+          System.err.println("The snapshot is out of date: " + snapshotFile);
+        }
+        else
+        {
+          snapshot = new Snapshot(mapped, headerEnd);
+        }
+      }
+    }
+    catch (IOException ioe)
+    {
+      System.err.println("Exception opening the snapshot: " + ioe.getMessage());
+    }
+    finally
+    {
+      if (raf != null)
+      {
+        try
+        {
+          raf.close();
+          raf = null;
+        }
+        catch (Exception e)
+        {
+          // Nothing to do here
+          raf = null;
+        }
+      }
+    }
+    
+    return snapshot;
+  }
+  
+  
+  /**
+   * Return the name of each source file of a snapshot, in the
+   * order they're stored in the header.
+   * 
+   * @param path the directory containing the data files
+   * @return the names of the source files
+   */
+  static String[] getSourceFiles(final String path)
+  {
+    // The index files come first, then the data files
+    final int numFiles = Utility.getFileCount();
+    String[] names = new String[numFiles * 2];
+    for (int i = 0; i < numFiles; ++i)
+    {
+      names[i] = Utility.getFilename(path, Utility.getFilePartOfSpeech(i), true);
+      names[numFiles + i] = Utility.getFilename(path,
+                              Utility.getFilePartOfSpeech(i), false);
+    }
+    
+    return names;
+  }
+  
+  
+  /**
+   * Compute the CRC-32 of the contents of a file.
+   * 
+   * @param file the file
+   * @return the CRC-32 of the file
+   * @throws IOException an exception reading the file
+   */
+  static long computeChecksum(final File file) throws IOException
+  {
+    CRC32 crc = new CRC32();
+    byte[] data = new byte[65536];
+    InputStream in = new FileInputStream(file);
+    try
+    {
+      int len;
+      while ((len = in.read(data)) > 0)
+      {
+        crc.update(data, 0, len);
+      }
+    }
+    finally
+    {
+      in.close();
+    }
+    
+    return crc.getValue();
+  }
+  
+  
+  /**
+   * Check that the source files recorded in the header match the
+   * files in the directory.  If the length and modification time
+   * of a file match, it's assumed to be unchanged; otherwise, its
+   * CRC-32 is compared, so a copied directory is still accepted.
+   * 
+   * @param mapped the contents of the snapshot file
+   * @param path the directory containing the data files
+   * @return the offset of the section table, or -1 if the files don't match
+   * @throws IOException an exception reading a source file
+   */
+  private static int checkFingerprint(final ByteBuffer mapped,
+                                      final String path)
+    throws IOException
+  {
+    // Check the number of source files
+    final String[] names = getSourceFiles(path);
+    if (mapped.getInt(8) != names.length)
+    {
+      return -1;
+    }
+    
+    // Check each file
+    int pos = 12;
+    for (int i = 0; i < names.length; ++i)
+    {
+      // Read the recorded length, modification time and CRC-32
+      final long length = mapped.getLong(pos);
+      final long modified = mapped.getLong(pos + 8);
+      final long checksum = mapped.getLong(pos + 16);
+      pos += 24;
+      
+      // Check the file
+      File file = new File(names[i]);
+      if ((!file.isFile()) || (file.length() != length))
+      {
+        return -1;
+      }
+      else if ((file.lastModified() != modified) &&
+               (computeChecksum(file) != checksum))
+      {
+        return -1;
+      }
+    }
+    
+    // Check the number of sections
+    if (mapped.getInt(pos) != NUM_SECTIONS)
+    {
+      return -1;
+    }
+    
+    return pos;
+  }
+  
+  
+  /**
+   * Return a view of part of a buffer as an array of integers.
+   * 
+   * @param data the buffer
+   * @param offset the offset of the first integer
+   * @param count the number of integers
+   * @return the integers
+   */
+  static IntBuffer getIntBuffer(final ByteBuffer data,
+                                final int offset,
+                                final int count)
+  {
+    ByteBuffer view = data.duplicate();
+    view.position(offset);
+    view.limit(offset + (count * 4));
+    return view.slice().asIntBuffer();
+  }
+  
+  
+  /**
+   * Return the bytes at the specified position as a string.
+   * The strings in a snapshot are ASCII.
+   * 
+   * @param offset the offset of the first byte
+   * @param len the number of bytes
+   * @return the string
+   */
+  String getString(final int offset, final int len)
+  {
+    char[] chars = new char[len];
+    for (int i = 0; i < len; ++i)
+    {
+      chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+    }
+    
+    return new String(chars);
+  }
+  
+  
+  /**
+   * Return the mapped contents of the snapshot.
+   * 
+   * @return the contents of the snapshot
+   */
+  ByteBuffer getBuffer()
+  {
+    return buffer;
+  }
+  
+  
+  /**
+   * Return the offset of the start of a section.
+   * 
+   * @param section the section number
+   * @return the offset of the start of the section
+   */
+  int getSectionStart(final int section)
+  {
+    return sectionStart[section];
+  }
+  
+  
+  /**
+   * Return the number of lemmas in the lemma table.
+   * 
+   * @return the number of lemmas
+   */
+  int getLemmaCount()
+  {
+    return lemmaCount;
+  }
+  
+  
+  /**
+   * Return the lemma at the specified position in the lemma table.
+   * 
+   * @param lemmaID the position in the lemma table
+   * @return the lemma
+   */
+  String getLemma(final int lemmaID)
+  {
+    // Check if the lemma has been read already
+    String lemma = lemmaCache[lemmaID];
+    if (lemma == null)
+    {
+      // It hasn't, so read it and save it
+      final int offset = lemmaOffsets.get(lemmaID);
+      lemma = getString(sectionStart[SECTION_LEMMAS] + 4 +
+                          ((lemmaCount + 1) * 4) + offset,
+                        lemmaOffsets.get(lemmaID + 1) - offset);
+      lemmaCache[lemmaID] = lemma;
+    }
+    
+    return lemma;
+  }
+  
+  
+  /**
+   * Return the pointer symbol with the specified number.
+   * 
+   * @param symbolID the number of the pointer symbol
+   * @return the pointer symbol
+   */
+  String getSymbol(final int symbolID)
+  {
+    return symbols[symbolID];
+  }
+  
+  
+  /**
+   * Return the index terms of the part of speech.
+   * 
+   * @param pos the part of speech
+   * @return the index terms
+   */
+  SnapshotIndex getIndex(final PartOfSpeech pos)
+  {
+    return indexes[Utility.getFileIndex(pos)];
+  }
+  
+  
+  /**
+   * Return the position of the record for a synset.
+   * 
+   * @param pos the part of speech of the synset
+   * @param offset the offset of the synset in the data file
+   * @return the position of the record, or -1 if it's not found
+   */
+  int findRecord(final PartOfSpeech pos, final long offset)
+  {
+    final int index = Utility.getFileIndex(pos);
+    final int record = findSynset(index, offset);
+    if (record < 0)
+    {
+      return -1;
+    }
+    
+    return (recordsStart[index] + synsetRecords[index].get(record));
+  }
+  
+  
+  /**
+   * Return the lexicographer file number of a synset record.
+   * 
+   * @param record the position of the record
+   * @return the lexicographer file number
+   */
+  int getLexFilenum(final int record)
+  {
+    return (buffer.get(record) & 0xFF);
+  }
+  
+  
+  /**
+   * Return the part of speech character of a synset record.
+   * 
+   * @param record the position of the record
+   * @return the part of speech character
+   */
+  char getPosType(final int record)
+  {
+    return (char) buffer.get(record + 1);
+  }
+  
+  
+  /**
+   * Return the number of words in a synset record.
+   * 
+   * @param record the position of the record
+   * @return the number of words
+   */
+  int getWordCount(final int record)
+  {
+    return buffer.getShort(record + 2);
+  }
+  
+  
+  /**
+   * Return the number of pointers in a synset record.
+   * 
+   * @param record the position of the record
+   * @return the number of pointers
+   */
+  int getPointerCount(final int record)
+  {
+    return buffer.getShort(record + 4);
+  }
+  
+  
+  /**
+   * Return the number of frames in a synset record.
+   * 
+   * @param record the position of the record
+   * @return the number of frames
+   */
+  int getFrameCount(final int record)
+  {
+    return buffer.getShort(record + 6);
+  }
+  
+  
+  /**
+   * Return the gloss of a synset record.
+   * 
+   * @param record the position of the record
+   * @return the gloss, or null if it has none
+   */
+  String getGloss(final int record)
+  {
+    final int length = buffer.getInt(record + 12);
+    if (length < 0)
+    {
+      return null;
+    }
+    
+    return getString(sectionStart[SECTION_GLOSSES] + buffer.getInt(record + 8),
+                     length);
+  }
+  
+  
+  /**
+   * Return the position of a word in a synset record.
+   * 
+   * @param record the position of the record
+   * @param index the number of the word (0-based)
+   * @return the position of the word
+   */
+  static int getWordPosition(final int record, final int index)
+  {
+    return (record + RECORD_SIZE + (index * WORD_SIZE));
+  }
+  
+  
+  /**
+   * Return the position of a pointer in a synset record.
+   * 
+   * @param record the position of the record
+   * @param index the number of the pointer (0-based)
+   * @return the position of the pointer
+   */
+  int getPointerPosition(final int record, final int index)
+  {
+    return (getWordPosition(record, getWordCount(record)) +
+              (index * POINTER_SIZE));
+  }
+  
+  
+  /**
+   * Return the position of a frame in a synset record.
+   * 
+   * @param record the position of the record
+   * @param index the number of the frame (0-based)
+   * @return the position of the frame
+   */
+  int getFramePosition(final int record, final int index)
+  {
+    return (getPointerPosition(record, getPointerCount(record)) +
+              (index * FRAME_SIZE));
+  }
+  
+  
+  /**
+   * Return the text of the word at a position in a synset record.
+   * 
+   * @param position the position of the word
+   * @return the word
+   */
+  String getWord(final int position)
+  {
+    return getString(sectionStart[SECTION_WORDS] + buffer.getInt(position),
+                     buffer.getShort(position + 4));
+  }
+  
+  
+  /**
+   * Return the lexicon ID of the word at a position in a synset record.
+   * 
+   * @param position the position of the word
+   * @return the lexicon ID
+   */
+  int getLexID(final int position)
+  {
+    return buffer.get(position + 6);
+  }
+  
+  
+  /**
+   * Return the syntactic marker of the word at a position in
+   * a synset record.
+   * 
+   * @param position the position of the word
+   * @return the syntactic marker, or null if it has none
+   */
+  String getSyntacticMarker(final int position)
+  {
+    final int markerStart = buffer.get(position + 7);
+    if (markerStart < 0)
+    {
+      return null;
+    }
+    
+    return getString(sectionStart[SECTION_WORDS] + buffer.getInt(position) +
+                       markerStart, buffer.get(position + 8));
+  }
+  
+  
+  /**
+   * Return the sense number of the word at a position in a synset record.
+   * 
+   * @param position the position of the word
+   * @return the sense number, or 0 if it was not found
+   */
+  int getSenseNumber(final int position)
+  {
+    return buffer.getShort(position + 9);
+  }
+  
+  
+  /**
+   * Return the symbol of the pointer at a position in a synset record.
+   * 
+   * @param position the position of the pointer
+   * @return the pointer symbol
+   */
+  String getPointerSymbol(final int position)
+  {
+    return symbols[buffer.getShort(position)];
+  }
+  
+  
+  /**
+   * Return the target offset of the pointer at a position in
+   * a synset record.
+   * 
+   * @param position the position of the pointer
+   * @return the offset of the target synset
+   */
+  long getPointerTarget(final int position)
+  {
+    return buffer.getInt(position + 2);
+  }
+  
+  
+  /**
+   * Return the part of speech character of the pointer at a
+   * position in a synset record.
+   * 
+   * @param position the position of the pointer
+   * @return the part of speech of the target synset
+   */
+  char getPointerPosType(final int position)
+  {
+    return (char) buffer.get(position + 6);
+  }
+  
+  
+  /**
+   * Return the source word number of the pointer at a position
+   * in a synset record.
+   * 
+   * @param position the position of the pointer
+   * @return the word number in the source synset
+   */
+  int getPointerSource(final int position)
+  {
+    return (buffer.get(position + 7) & 0xFF);
+  }
+  
+  
+  /**
+   * Return the target word number of the pointer at a position
+   * in a synset record.
+   * 
+   * @param position the position of the pointer
+   * @return the word number in the target synset
+   */
+  int getPointerTargetWord(final int position)
+  {
+    return (buffer.get(position + 8) & 0xFF);
+  }
+  
+  
+  /**
+   * Return the frame at a position in a synset record.
+   * 
+   * @param position the position of the frame
+   * @return the frame
+   */
+  FrameData getFrame(final int position)
+  {
+    return new FrameData(buffer.get(position) & 0xFF,
+                         buffer.get(position + 1) & 0xFF);
+  }
+  
+  
+  /**
+   * Return a view of the words in a synset record.
+   * 
+   * @param record the position of the record
+   * @param pos the part of speech of the synset
+   * @param offset the offset of the synset in the data file
+   * @return a view of the words, or null if there are none
+   */
+  List<WordData> getWordList(final int record,
+                             final PartOfSpeech pos,
+                             final long offset)
+  {
+    final int size = getWordCount(record);
+    if (size < 1)
+    {
+      return null;
+    }
+    
+    return new AbstractList<WordData>()
+    {
+      @Override
+      public WordData get(final int index)
+      {
+        checkIndex(index, size);
+        return new WordData(Snapshot.this, getWordPosition(record, index),
+                            pos, offset);
+      }
+      
+      @Override
+      public int size()
+      {
+        return size;
+      }
+    };
+  }
+  
+  
+  /**
+   * Return a view of the pointers in a synset record.
+   * 
+   * @param record the position of the record
+   * @return a view of the pointers, or null if there are none
+   */
+  List<Pointer> getPointerList(final int record)
+  {
+    final int size = getPointerCount(record);
+    if (size < 1)
+    {
+      return null;
+    }
+    
+    final int start = getPointerPosition(record, 0);
+    return new AbstractList<Pointer>()
+    {
+      @Override
+      public Pointer get(final int index)
+      {
+        checkIndex(index, size);
+        return new Pointer(Snapshot.this, start + (index * POINTER_SIZE));
+      }
+      
+      @Override
+      public int size()
+      {
+        return size;
+      }
+    };
+  }
+  
+  
+  /**
+   * Return a view of the frames in a synset record.
+   * 
+   * @param record the position of the record
+   * @return a view of the frames, or null if there are none
+   */
+  List<FrameData> getFrameList(final int record)
+  {
+    final int size = getFrameCount(record);
+    if (size < 1)
+    {
+      return null;
+    }
+    
+    final int start = getFramePosition(record, 0);
+    return new AbstractList<FrameData>()
+    {
+      @Override
+      public FrameData get(final int index)
+      {
+        checkIndex(index, size);
+        return getFrame(start + (index * FRAME_SIZE));
+      }
+      
+      @Override
+      public int size()
+      {
+        return size;
+      }
+    };
+  }
+  
+  
+  /**
+   * Verify an index into a list is valid.
+   * 
+   * @param index the index into the list
+   * @param size the size of the list
+   */
+  private static void checkIndex(final int index, final int size)
+  {
+    if ((index < 0) || (index >= size))
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+  
+  
+  /**
+   * Populate a synset from its record in the snapshot.
+   * 
+   * @param synset the synset to populate
+   * @param pos the part of speech of the synset
+   * @param offset the offset of the synset in the data file
+   * @return whether the synset was found in the snapshot
+   */
+  boolean loadSynset(final Synset synset,
+                     final PartOfSpeech pos,
+                     final long offset)
+  {
+    // Find the record for the synset
+    final int record = findRecord(pos, offset);
+    if (record < 0)
+    {
+      return false;
+    }
+    
+    // Read the fixed fields
+    synset.setLexFilenum(getLexFilenum(record));
+    synset.setPosType(getPosType(record));
+    
+    // Read the words
+    final PartOfSpeech synsetPOS = synset.getPOS();
+    final int nNumWords = getWordCount(record);
+    synset.setNumWords(nNumWords);
+    for (int i = 0; i < nNumWords; ++i)
+    {
+      final int position = getWordPosition(record, i);
+      WordData wd = new WordData(getWord(position), getLexID(position),
+                                 getSyntacticMarker(position), synsetPOS, offset);
+      wd.setSenseNumber(getSenseNumber(position));
+      synset.addWord(wd);
+    }
+    
+    // Read the pointers
+    final int nNumPointers = getPointerCount(record);
+    synset.setPointerCount(nNumPointers);
+    for (int i = 0; i < nNumPointers; ++i)
+    {
+      final int position = getPointerPosition(record, i);
+      synset.addPointer(new Pointer(getPointerSymbol(position),
+                                    getPointerTarget(position),
+                                    getPointerPosType(position),
+                                    getPointerSource(position),
+                                    getPointerTargetWord(position)));
+    }
+    
+    // Read the frames
+    final int nFrameCount = getFrameCount(record);
+    if (nFrameCount > 0)
+    {
+      synset.setFrameCount(nFrameCount);
+      for (int i = 0; i < nFrameCount; ++i)
+      {
+        synset.addFrame(getFrame(getFramePosition(record, i)));
+      }
+    }
+    
+    // Read the gloss
+    synset.setGloss(getGloss(record));
+    
+    return true;
+  }
+  
+  
+  /**
+   * Return the position of the synset with the specified offset
+   * in the list of synsets for a part of speech.
+   * 
+   * @param index the position of the part of speech in the list of files
+   * @param offset the offset of the synset in the data file
+   * @return the position of the synset, or -1 if it's not found
+   */
+  private int findSynset(final int index, final long offset)
+  {
+    IntBuffer offsets = synsetOffsets[index];
+    int low = 0;
+    int high = synsetCounts[index] - 1;
+    while (low <= high)
+    {
+      // Compare the offset in the middle of the range
+      final int mid = (low + high) >>> 1;
+      final long midOffset = offsets.get(mid);
+      if (midOffset < offset)
+      {
+        low = mid + 1;
+      }
+      else if (midOffset > offset)
+      {
+        high = mid - 1;
+      }
+      else
+      {
+        return mid;
+      }
+    }
+    
+    return -1;
+  }
+}
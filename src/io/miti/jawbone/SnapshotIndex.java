@@ -0,0 +1,189 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * This class provides the index terms of one part of speech
+ * in a snapshot.  The terms are read in place from the
+ * mapped snapshot file.
+ * 
+ * @author mwallace
+ */
+final class SnapshotIndex extends IndexTermTable
+{
+  /**
+   * The snapshot holding the terms.
+   */
+  private final Snapshot snapshot;
+  
+  /**
+   * The part of speech of the terms.
+   */
+  private final PartOfSpeech partOfSpeech;
+  
+  /**
+   * The number of terms.
+   */
+  private final int count;
+  
+  /**
+   * The position of each term's lemma in the lemma table.
+   */
+  private final IntBuffer lemmaIDs;
+  
+  /**
+   * The tag sense count for each term.
+   */
+  private final IntBuffer tagSenseCounts;
+  
+  /**
+   * The position in synsetOffsets of the first synset offset
+   * for each term, plus the end of the last one.
+   */
+  private final IntBuffer synsetStart;
+  
+  /**
+   * The position in pointerSymbols of the first pointer symbol
+   * for each term, plus the end of the last one.
+   */
+  private final IntBuffer pointerStart;
+  
+  /**
+   * The synset offsets of all terms.
+   */
+  private final IntBuffer synsetOffsets;
+  
+  /**
+   * The offset of the pointer symbol numbers of all terms.
+   */
+  private final int pointerSymbolsStart;
+  
+  
+  /**
+   * Constructor taking the snapshot and the offset of the
+   * section holding the terms.
+   * 
+   * @param snap the snapshot
+   * @param pos the part of speech of the terms
+   * @param start the offset of the section
+   */
+  SnapshotIndex(final Snapshot snap, final PartOfSpeech pos, final int start)
+  {
+    snapshot = snap;
+    partOfSpeech = pos;
+    
+    // Read the number of terms, and the arrays that follow it
+    ByteBuffer buffer = snap.getBuffer();
+    count = buffer.getInt(start);
+    int position = start + 4;
+    lemmaIDs = Snapshot.getIntBuffer(buffer, position, count);
+    position += (count * 4);
+    tagSenseCounts = Snapshot.getIntBuffer(buffer, position, count);
+    position += (count * 4);
+    synsetStart = Snapshot.getIntBuffer(buffer, position, count + 1);
+    position += ((count + 1) * 4);
+    pointerStart = Snapshot.getIntBuffer(buffer, position, count + 1);
+    position += ((count + 1) * 4);
+    
+    final int numSynsets = buffer.getInt(position);
+    synsetOffsets = Snapshot.getIntBuffer(buffer, position + 4, numSynsets);
+    position += (4 + (numSynsets * 4));
+    
+    pointerSymbolsStart = position + 4;
+  }
+  
+  
+  /**
+   * Return the number of terms.
+   * 
+   * @return the number of terms
+   */
+  @Override
+  int size()
+  {
+    return count;
+  }
+  
+  
+  /**
+   * Return the lemma of the term at the specified position.
+   * 
+   * @param id the position of the term
+   * @return the lemma
+   */
+  @Override
+  String getLemma(final int id)
+  {
+    return snapshot.getLemma(lemmaIDs.get(id));
+  }
+  
+  
+  /**
+   * Build an IndexTerm object for the term at the specified
+   * position.
+   * 
+   * @param id the position of the term
+   * @return the IndexTerm object for the term
+   */
+  @Override
+  IndexTerm getTerm(final int id)
+  {
+    // Declare the object we want to populate
+    IndexTerm term = new IndexTerm();
+    term.setLemma(getLemma(id));
+    term.setPartOfSpeech(partOfSpeech.getShortKey());
+    
+    // Save the pointer symbols
+    ByteBuffer buffer = snapshot.getBuffer();
+    final int nFirstPointer = pointerStart.get(id);
+    final int nNumPointers = pointerStart.get(id + 1) - nFirstPointer;
+    term.setPointerCount(nNumPointers);
+    for (int i = 0; i < nNumPointers; ++i)
+    {
+      final int symbolID = buffer.get(pointerSymbolsStart + nFirstPointer + i);
+      term.setPointerSymbol(i, snapshot.getSymbol(symbolID & 0xFF));
+    }
+    
+    term.setTagSenseCount(tagSenseCounts.get(id));
+    
+    // Save the synset offsets
+    final int nFirstSynset = synsetStart.get(id);
+    final int nNumSynsets = synsetStart.get(id + 1) - nFirstSynset;
+    term.setSynsetCount(nNumSynsets);
+    for (int i = 0; i < nNumSynsets; ++i)
+    {
+      term.setSynsetOffset(i, synsetOffsets.get(nFirstSynset + i));
+    }
+    
+    return term;
+  }
+}
@@ -0,0 +1,659 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class compiles the WordNet index and data files in a
+ * directory into a single snapshot file, which can be opened
+ * with Dictionary.initialize(String, String).  See the Snapshot
+ * class for a description of the format.
+ * 
+ * @author mwallace
+ */
+public final class SnapshotWriter
+{
+  /**
+   * The character set of the WordNet files.
+   */
+  private static final String CHARSET = "ISO-8859-1";
+  
+  /**
+   * The sorted table of all lemmas.
+   */
+  private String[] lemmas = null;
+  
+  /**
+   * The position of each lemma in the table of lemmas.
+   */
+  private final Map<String, Integer> lemmaIDs = new HashMap<String, Integer>();
+  
+  /**
+   * The pointer symbols, in the order they were found.
+   */
+  private final List<String> symbols = new ArrayList<String>(50);
+  
+  /**
+   * The number of each pointer symbol.
+   */
+  private final Map<String, Integer> symbolIDs = new HashMap<String, Integer>(50);
+  
+  /**
+   * The words in the synsets.
+   */
+  private final ByteArrayOutputStream words = new ByteArrayOutputStream(1 << 20);
+  
+  /**
+   * The offset of each word in the words section.
+   */
+  private final Map<String, Integer> wordOffsets = new HashMap<String, Integer>();
+  
+  /**
+   * The glosses.
+   */
+  private final ByteArrayOutputStream glosses = new ByteArrayOutputStream(1 << 20);
+  
+  /**
+   * The contents of each section.
+   */
+  private final byte[][] sections = new byte[Snapshot.NUM_SECTIONS][];
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SnapshotWriter()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Compile the WordNet index and data files in a directory into
+   * a snapshot file.
+   * 
+   * @param path the directory containing the data files
+   * @param snapshotFile the name of the snapshot file to write
+   * @return whether the snapshot was written
+   */
+  public static boolean compile(final String path, final String snapshotFile)
+  {
+    // Check the input
+    if ((path == null) || (!new File(path).isDirectory()))
+    {
+      System.err.println("The data path is either not set or is invalid");
+      return false;
+    }
+    else if ((snapshotFile == null) || (snapshotFile.length() < 1))
+    {
+      System.err.println("The snapshot file was not specified");
+      return false;
+    }
+    
+    boolean result = false;
+    try
+    {
+      // Build the sections and write the file
+      SnapshotWriter writer = new SnapshotWriter();
+      writer.buildSections(path);
+      writer.writeFile(path, snapshotFile);
+      result = true;
+    }
+    catch (IOException ioe)
+    {
+      System.err.println("Exception writing the snapshot: " + ioe.getMessage());
+    }
+    
+    return result;
+  }
+  
+  
+  /**
+   * Open a reader for the lines of a WordNet file.
+   * 
+   * @param name the name of the file
+   * @return the reader for the file
+   * @throws IOException an exception opening the file
+   */
+  private static ChannelLineReader openFile(final String name)
+    throws IOException
+  {
+    return new ChannelLineReader(new FileInputStream(name).getChannel(), 0L);
+  }
+  
+  
+  /**
+   * Move a reader to the next line that isn't part of the license.
+   * 
+   * @param reader the reader for the file
+   * @return whether there was another line
+   * @throws IOException an exception reading the file
+   */
+  private static boolean nextLine(final ChannelLineReader reader)
+    throws IOException
+  {
+    while (reader.nextLine())
+    {
+      // Check if we should process this line
+      final ByteLineParser parser = reader.getParser();
+      if ((!parser.isEmpty()) && (parser.peek() != ' '))
+      {
+        return true;
+      }
+    }
+    
+    return false;
+  }
+  
+  
+  /**
+   * Build the contents of each section from the files in the directory.
+   * 
+   * @param path the directory containing the data files
+   * @throws IOException an exception reading a file
+   */
+  private void buildSections(final String path) throws IOException
+  {
+    // Read the index files
+    final int numFiles = Utility.getFileCount();
+    List<List<IndexTerm>> terms = new ArrayList<List<IndexTerm>>(numFiles);
+    List<String> allLemmas = new ArrayList<String>(200000);
+    for (int i = 0; i < numFiles; ++i)
+    {
+      List<IndexTerm> list = new ArrayList<IndexTerm>(10000);
+      ChannelLineReader reader = openFile(Utility.getFilename(path,
+                                   Utility.getFilePartOfSpeech(i), true));
+      try
+      {
+        while (nextLine(reader))
+        {
+          final ByteLineParser parser = reader.getParser();
+          IndexTerm term = ParseIndexFile.process(parser, parser.nextLemma(),
+                                                  null);
+          list.add(term);
+          allLemmas.add(term.getLemma());
+        }
+      }
+      finally
+      {
+        reader.close();
+      }
+      
+      // Keep the terms in the order used by the lookups
+      Collections.sort(list, new Comparator<IndexTerm>()
+      {
+        public int compare(final IndexTerm term1, final IndexTerm term2)
+        {
+          return Utility.compareLemmas(term1.getLemma(), term2.getLemma());
+        }
+      });
+      
+      terms.add(list);
+    }
+    
+    // Build the table of lemmas
+    Collections.sort(allLemmas, new Comparator<String>()
+    {
+      public int compare(final String lemma1, final String lemma2)
+      {
+        return Utility.compareLemmas(lemma1, lemma2);
+      }
+    });
+    List<String> unique = new ArrayList<String>(allLemmas.size());
+    for (String lemma : allLemmas)
+    {
+      if ((unique.isEmpty()) || (!unique.get(unique.size() - 1).equals(lemma)))
+      {
+        lemmaIDs.put(lemma, Integer.valueOf(unique.size()));
+        unique.add(lemma);
+      }
+    }
+    lemmas = unique.toArray(new String[unique.size()]);
+    allLemmas = null;
+    unique = null;
+    
+    // Build the sections for each part of speech
+    for (int i = 0; i < numFiles; ++i)
+    {
+      sections[Snapshot.SECTION_INDEX + i] = buildIndexSection(terms.get(i));
+      sections[Snapshot.SECTION_SYNSETS + i] =
+        buildSynsetSection(path, i, terms.get(i));
+      terms.set(i, null);
+    }
+    
+    // Build the other sections
+    sections[Snapshot.SECTION_LEMMAS] = buildStringTable(lemmas);
+    sections[Snapshot.SECTION_SYMBOLS] =
+      buildStringTable(symbols.toArray(new String[symbols.size()]));
+    sections[Snapshot.SECTION_WORDS] = words.toByteArray();
+    sections[Snapshot.SECTION_GLOSSES] = glosses.toByteArray();
+  }
+  
+  
+  /**
+   * Return the number of a pointer symbol, adding it to the
+   * table of symbols if necessary.
+   * 
+   * @param symbol the pointer symbol
+   * @return the number of the pointer symbol
+   */
+  private int getSymbolID(final String symbol)
+  {
+    Integer id = symbolIDs.get(symbol);
+    if (id == null)
+    {
+      id = Integer.valueOf(symbols.size());
+      symbolIDs.put(symbol, id);
+      symbols.add(symbol);
+    }
+    
+    return id.intValue();
+  }
+  
+  
+  /**
+   * Build a table of strings: the number of strings, the offset
+   * of each string (plus the end of the last one), and the
+   * characters of the strings.
+   * 
+   * @param strings the strings
+   * @return the contents of the table
+   * @throws IOException an exception writing the table
+   */
+  private static byte[] buildStringTable(final String[] strings)
+    throws IOException
+  {
+    // Write the characters of the strings, saving the offsets
+    ByteArrayOutputStream chars = new ByteArrayOutputStream(strings.length * 10);
+    int[] offsets = new int[strings.length + 1];
+    for (int i = 0; i < strings.length; ++i)
+    {
+      offsets[i] = chars.size();
+      chars.write(strings[i].getBytes(CHARSET));
+    }
+    offsets[strings.length] = chars.size();
+    
+    // Write the table
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(chars.size() +
+                                        (offsets.length * 4) + 4);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(strings.length);
+    for (int i = 0; i < offsets.length; ++i)
+    {
+      out.writeInt(offsets[i]);
+    }
+    chars.writeTo(out);
+    out.flush();
+    
+    return bytes.toByteArray();
+  }
+  
+  
+  /**
+   * Build the section holding the index terms for one part of speech.
+   * 
+   * @param terms the index terms, in sorted order
+   * @return the contents of the section
+   * @throws IOException an exception writing the section
+   */
+  private byte[] buildIndexSection(final List<IndexTerm> terms)
+    throws IOException
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(terms.size() * 32);
+    DataOutputStream out = new DataOutputStream(bytes);
+    
+    // Write the number of terms, the lemma numbers and the tag sense counts
+    final int size = terms.size();
+    out.writeInt(size);
+    for (IndexTerm term : terms)
+    {
+      out.writeInt(lemmaIDs.get(term.getLemma()).intValue());
+    }
+    for (IndexTerm term : terms)
+    {
+      out.writeInt(term.getTagSenseCount());
+    }
+    
+    // Write the start of each term's synset offsets and pointer symbols
+    int numSynsets = 0;
+    for (IndexTerm term : terms)
+    {
+      out.writeInt(numSynsets);
+      numSynsets += term.getSynsetCount();
+    }
+    out.writeInt(numSynsets);
+    
+    int numPointers = 0;
+    for (IndexTerm term : terms)
+    {
+      out.writeInt(numPointers);
+      numPointers += term.getPointerCount();
+    }
+    out.writeInt(numPointers);
+    
+    // Write the synset offsets
+    out.writeInt(numSynsets);
+    for (IndexTerm term : terms)
+    {
+      for (int i = 0; i < term.getSynsetCount(); ++i)
+      {
+        out.writeInt((int) term.getSynsetOffset(i));
+      }
+    }
+    
+    // Write the pointer symbols
+    out.writeInt(numPointers);
+    for (IndexTerm term : terms)
+    {
+      final String[] pointers = term.getPointers();
+      for (int i = 0; i < term.getPointerCount(); ++i)
+      {
+        out.writeByte(getSymbolID(pointers[i]));
+      }
+    }
+    
+    out.flush();
+    return bytes.toByteArray();
+  }
+  
+  
+  /**
+   * Build the section holding the synsets for one part of speech.
+   * 
+   * @param path the directory containing the data files
+   * @param index the position of the part of speech in the list of files
+   * @param terms the index terms, used to find the sense numbers
+   * @return the contents of the section
+   * @throws IOException an exception reading the data file
+   */
+  private byte[] buildSynsetSection(final String path,
+                                    final int index,
+                                    final List<IndexTerm> terms)
+    throws IOException
+  {
+    // Save the sense number of each lemma in each synset
+    Map<String, Integer> senses = new HashMap<String, Integer>(terms.size() * 2);
+    for (IndexTerm term : terms)
+    {
+      for (int i = 0; i < term.getSynsetCount(); ++i)
+      {
+        senses.put(getSenseKey(term.getLemma(), term.getSynsetOffset(i)),
+                   Integer.valueOf(i + 1));
+      }
+    }
+    
+    // Read the data file
+    int[] offsets = new int[terms.size()];
+    int[] positions = new int[terms.size()];
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(terms.size() * 100);
+    DataOutputStream out = new DataOutputStream(bytes);
+    int count = 0;
+    ChannelLineReader reader = openFile(Utility.getFilename(path,
+                                 Utility.getFilePartOfSpeech(index), false));
+    try
+    {
+      while (nextLine(reader))
+      {
+        // Parse the line
+        Synset synset = new Synset();
+        synset.setLoaded(true);
+        if (!ParseDataFile.process(reader.getParser(), synset))
+        {
+          continue;
+        }
+        
+        // Make room for the synset
+        if (count == offsets.length)
+        {
+          offsets = Arrays.copyOf(offsets, count * 2);
+          positions = Arrays.copyOf(positions, count * 2);
+        }
+        
+        // Save where the record starts, and write it
+        offsets[count] = (int) synset.getSynsetOffset();
+        positions[count] = bytes.size();
+        writeSynset(out, synset, senses);
+        out.flush();
+        ++count;
+      }
+    }
+    finally
+    {
+      reader.close();
+    }
+    
+    // Write the section: the number of synsets, the offsets, the
+    // position of each record, and the records
+    ByteArrayOutputStream section = new ByteArrayOutputStream(bytes.size() +
+                                          (count * 8) + 4);
+    DataOutputStream sectionOut = new DataOutputStream(section);
+    sectionOut.writeInt(count);
+    for (int i = 0; i < count; ++i)
+    {
+      sectionOut.writeInt(offsets[i]);
+    }
+    for (int i = 0; i < count; ++i)
+    {
+      sectionOut.writeInt(positions[i]);
+    }
+    bytes.writeTo(sectionOut);
+    sectionOut.flush();
+    
+    return section.toByteArray();
+  }
+  
+  
+  /**
+   * Return the key used to save the sense number of a lemma
+   * in a synset.
+   * 
+   * @param lemma the lemma
+   * @param offset the offset of the synset
+   * @return the key for the sense number
+   */
+  private static String getSenseKey(final String lemma, final long offset)
+  {
+    return (lemma + ' ' + Long.toString(offset));
+  }
+  
+  
+  /**
+   * Write the record for one synset.
+   * 
+   * @param out the stream to write to
+   * @param synset the synset
+   * @param senses the sense number of each lemma in each synset
+   * @throws IOException an exception writing the record
+   */
+  private void writeSynset(final DataOutputStream out,
+                           final Synset synset,
+                           final Map<String, Integer> senses)
+    throws IOException
+  {
+    // Write the fixed fields
+    final List<WordData> listWords = synset.getWord();
+    final List<Pointer> listPointers = synset.getPointers();
+    final List<FrameData> listFrames = synset.getFrames();
+    out.writeByte(synset.getLexFilenum());
+    out.writeByte(synset.getPOS().getShortKey());
+    out.writeShort((listWords == null) ? 0 : listWords.size());
+    out.writeShort((listPointers == null) ? 0 : listPointers.size());
+    out.writeShort((listFrames == null) ? 0 : listFrames.size());
+    
+    // Write the gloss
+    final String gloss = synset.getGloss();
+    if (gloss == null)
+    {
+      out.writeInt(0);
+      out.writeInt(-1);
+    }
+    else
+    {
+      byte[] data = gloss.getBytes(CHARSET);
+      out.writeInt(glosses.size());
+      out.writeInt(data.length);
+      glosses.write(data);
+    }
+    
+    // Write the words
+    if (listWords != null)
+    {
+      for (WordData wd : listWords)
+      {
+        final String word = wd.getWord();
+        final String marker = wd.getSyntacticMarker();
+        
+        // Find the lemma of the word, to get its sense number
+        final int markerStart = ((marker == null) ? -1
+                                     : (word.lastIndexOf('(') + 1));
+        Integer senseNum = senses.get(getSenseKey(SenseIndex.getLemma(word),
+                                                  synset.getSynsetOffset()));
+        
+        out.writeInt(getWordOffset(word));
+        out.writeShort(word.length());
+        out.writeByte(wd.getLexID());
+        out.writeByte(markerStart);
+        out.writeByte((marker == null) ? 0 : marker.length());
+        out.writeShort((senseNum == null) ? 0 : senseNum.intValue());
+      }
+    }
+    
+    // Write the pointers
+    if (listPointers != null)
+    {
+      for (Pointer ptr : listPointers)
+      {
+        out.writeShort(getSymbolID(ptr.getPointerSymbol()));
+        out.writeInt((int) ptr.getSynset().getSynsetOffset());
+        out.writeByte(ptr.getPartOfSpeech().getShortKey());
+        out.writeByte(ptr.getSourceSynsetWordNumber());
+        out.writeByte(ptr.getTargetSynsetWordNumber());
+      }
+    }
+    
+    // Write the frames
+    if (listFrames != null)
+    {
+      for (FrameData frame : listFrames)
+      {
+        out.writeByte(frame.getFrameNum());
+        out.writeByte(frame.getWordNum());
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the offset of a word in the words section, adding it
+   * to the section if necessary.
+   * 
+   * @param word the word
+   * @return the offset of the word
+   * @throws IOException an exception writing the word
+   */
+  private int getWordOffset(final String word) throws IOException
+  {
+    Integer offset = wordOffsets.get(word);
+    if (offset == null)
+    {
+      offset = Integer.valueOf(words.size());
+      wordOffsets.put(word, offset);
+      words.write(word.getBytes(CHARSET));
+    }
+    
+    return offset.intValue();
+  }
+  
+  
+  /**
+   * Write the snapshot file: the header, the table of sections,
+   * and the sections.
+   * 
+   * @param path the directory containing the data files
+   * @param snapshotFile the name of the snapshot file
+   * @throws IOException an exception writing the file
+   */
+  private void writeFile(final String path, final String snapshotFile)
+    throws IOException
+  {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                 new FileOutputStream(snapshotFile), 65536));
+    try
+    {
+      // Write the magic number and version
+      out.writeInt(Snapshot.MAGIC);
+      out.writeInt(Snapshot.VERSION);
+      
+      // Write the length, modification time and CRC-32 of each source file
+      final String[] names = Snapshot.getSourceFiles(path);
+      out.writeInt(names.length);
+      for (int i = 0; i < names.length; ++i)
+      {
+        File file = new File(names[i]);
+        out.writeLong(file.length());
+        out.writeLong(file.lastModified());
+        out.writeLong(Snapshot.computeChecksum(file));
+      }
+      
+      // Write the table of sections
+      int offset = 12 + (names.length * 24) + 4 + (sections.length * 8);
+      out.writeInt(sections.length);
+      for (int i = 0; i < sections.length; ++i)
+      {
+        out.writeInt(offset);
+        out.writeInt(sections[i].length);
+        offset += sections[i].length;
+      }
+      
+      // Write the sections
+      for (int i = 0; i < sections.length; ++i)
+      {
+        out.write(sections[i]);
+      }
+    }
+    finally
+    {
+      out.close();
+    }
+  }
+}
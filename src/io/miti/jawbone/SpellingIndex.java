@@ -0,0 +1,401 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.SimilarFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class suggests the lemmas (of any part of speech) that
+ * are closest to a misspelled word, using the symmetric delete
+ * method: two strings are within a distance of each other only
+ * if deleting at most that many characters from each can make
+ * them equal.  The strings made by deleting up to MAX_DISTANCE
+ * characters from the start of each lemma are hashed and stored
+ * with the lemma's ID in one sorted array, so the candidates for
+ * a word are found by looking up the deletions of the word.
+ * Only the first PREFIX_LENGTH characters of each string are
+ * used, which limits the number of deletions per lemma without
+ * missing any matches; each candidate is then checked with its
+ * full distance from the word.
+ * 
+ * @author mwallace
+ */
+final class SpellingIndex
+{
+  /**
+   * The largest distance that can be looked up in the index.
+   */
+  static final int MAX_DISTANCE = 2;
+  
+  /**
+   * The number of characters at the start of a lemma whose
+   * deletions are indexed.
+   */
+  private static final int PREFIX_LENGTH = 7;
+  
+  /**
+   * The number of bits in an entry for the lemma ID.
+   */
+  private static final int ID_BITS = 24;
+  
+  /**
+   * The mask for the lemma ID in an entry.
+   */
+  private static final long ID_MASK = (1L << ID_BITS) - 1L;
+  
+  /**
+   * The lemmas of all parts of speech.
+   */
+  private final CombinedIndex lemmas;
+  
+  /**
+   * The total tag sense count of each lemma, over all parts
+   * of speech.
+   */
+  private final int[] tagSenseCounts;
+  
+  /**
+   * The entries for the deletions, sorted.  Each entry has the
+   * hash of a deletion in its upper bits and a lemma ID in
+   * the lower ID_BITS bits.
+   */
+  private final long[] entries;
+  
+  
+  /**
+   * Constructor taking the combined lemmas and the table for
+   * each part of speech.
+   * 
+   * @param combined the combined lemmas
+   * @param tables the tables, indexed by the position of the
+   *        part of speech in the list of files
+   */
+  SpellingIndex(final CombinedIndex combined, final IndexTermTable[] tables)
+  {
+    lemmas = combined;
+    final int nSize = lemmas.size();
+    if (nSize > ID_MASK)
+    {
+      throw new RuntimeException("Too many lemmas for the spelling index");
+    }
+    
+    // Add up the tag sense counts of each lemma
+    tagSenseCounts = new int[nSize];
+    for (int i = 0; i < tables.length; ++i)
+    {
+      for (int id = 0; id < nSize; ++id)
+      {
+        final int termID = lemmas.getTermID(i, id);
+        if (termID >= 0)
+        {
+          tagSenseCounts[id] += tables[i].getTerm(termID).getTagSenseCount();
+        }
+      }
+    }
+    
+    // Save the deletions of each lemma
+    final Deletions deletions = new Deletions(MAX_DISTANCE);
+    long[] list = new long[nSize * 8];
+    int nCount = 0;
+    for (int id = 0; id < nSize; ++id)
+    {
+      final int nHashes = deletions.generate(getKey(id), MAX_DISTANCE);
+      if ((nCount + nHashes) > list.length)
+      {
+        list = Arrays.copyOf(list, Math.max(list.length * 2, nCount + nHashes));
+      }
+      
+      for (int i = 0; i < nHashes; ++i)
+      {
+        list[nCount++] = (deletions.getHash(i) << ID_BITS) | id;
+      }
+    }
+    
+    // Sort the entries, and remove the duplicates
+    Arrays.sort(list, 0, nCount);
+    int nDistinct = 0;
+    for (int i = 0; i < nCount; ++i)
+    {
+      if ((nDistinct == 0) || (list[i] != list[nDistinct - 1]))
+      {
+        list[nDistinct++] = list[i];
+      }
+    }
+    
+    entries = Arrays.copyOf(list, nDistinct);
+  }
+  
+  
+  /**
+   * Return the lemma at a position as a key, with underscores
+   * instead of spaces.
+   * 
+   * @param id the position of the lemma
+   * @return the key
+   */
+  private String getKey(final int id)
+  {
+    return Utility.getIndexKey(lemmas.getLemma(id));
+  }
+  
+  
+  /**
+   * Return the lemmas within a maximum distance of a word, closest
+   * first.  Lemmas at the same distance are sorted by their tag
+   * sense counts, highest first, and then by the order of the
+   * index files.  Distances over MAX_DISTANCE can't be looked up
+   * in the index, so those lemmas are found by walking the trie
+   * of the lemmas instead.
+   * 
+   * @param word the word, in lower case
+   * @param maxDistance the maximum distance of a suggestion
+   * @param limit the maximum number of lemmas to return (-1 for no limit)
+   * @return the suggested lemmas
+   */
+  List<String> suggest(final String word,
+                       final int maxDistance,
+                       final int limit)
+  {
+    if ((maxDistance < 0) || (limit == 0))
+    {
+      return new ArrayList<String>(0);
+    }
+    
+    // Find the candidates
+    final String key = Utility.getIndexKey(word);
+    final int[] ids = ((maxDistance <= MAX_DISTANCE) ?
+                         findCandidates(key, maxDistance) :
+                         new LevenshteinAutomaton(key, maxDistance, false)
+                               .find(lemmas.getTrie()));
+    
+    // Keep the candidates that are close enough, sorted by
+    // distance and then by tag sense count
+    final SimilarFilter filter = new SimilarFilter(key, false, maxDistance);
+    long[] matches = new long[ids.length];
+    int nCount = 0;
+    for (int i = 0; i < ids.length; ++i)
+    {
+      final int dist = filter.getDistance(getKey(ids[i]));
+      if (dist <= maxDistance)
+      {
+        final long rank = Integer.MAX_VALUE - tagSenseCounts[ids[i]];
+        matches[nCount++] = ((long) Math.min(dist, Byte.MAX_VALUE) << 56) |
+                            (rank << ID_BITS) | ids[i];
+      }
+    }
+    
+    Arrays.sort(matches, 0, nCount);
+    final int nEnd = ((limit < 0) ? nCount : Math.min(nCount, limit));
+    List<String> results = new ArrayList<String>(nEnd);
+    for (int i = 0; i < nEnd; ++i)
+    {
+      results.add(lemmas.getLemma((int) (matches[i] & ID_MASK)));
+    }
+    
+    return results;
+  }
+  
+  
+  /**
+   * Return the IDs of the lemmas that share a deletion with
+   * the word, in increasing order without duplicates.
+   * 
+   * @param key the word, as a key
+   * @param maxDistance the maximum distance of a suggestion
+   * @return the IDs of the candidate lemmas
+   */
+  private int[] findCandidates(final String key, final int maxDistance)
+  {
+    final Deletions deletions = new Deletions(maxDistance);
+    final int nHashes = deletions.generate(key, maxDistance);
+    int[] ids = new int[16];
+    int nCount = 0;
+    for (int i = 0; i < nHashes; ++i)
+    {
+      // The entries for a hash are a contiguous range
+      final long first = deletions.getHash(i) << ID_BITS;
+      int pos = Arrays.binarySearch(entries, first);
+      if (pos < 0)
+      {
+        pos = -pos - 1;
+      }
+      
+      while ((pos < entries.length) && ((entries[pos] & ~ID_MASK) == first))
+      {
+        if (nCount == ids.length)
+        {
+          ids = Arrays.copyOf(ids, nCount * 2);
+        }
+        
+        ids[nCount++] = (int) (entries[pos++] & ID_MASK);
+      }
+    }
+    
+    // Remove the duplicates
+    Arrays.sort(ids, 0, nCount);
+    int nDistinct = 0;
+    for (int i = 0; i < nCount; ++i)
+    {
+      if ((nDistinct == 0) || (ids[i] != ids[nDistinct - 1]))
+      {
+        ids[nDistinct++] = ids[i];
+      }
+    }
+    
+    return Arrays.copyOf(ids, nDistinct);
+  }
+  
+  
+  /**
+   * The hashes of the strings made by deleting characters from
+   * the start of a string.  The strings are built in a reused
+   * buffer, so only their hashes are kept.
+   */
+  private static final class Deletions
+  {
+    /**
+     * The number of bits kept from each hash.
+     */
+    private static final int HASH_BITS = Long.SIZE - ID_BITS;
+    
+    /**
+     * The buffer for each level of deletion.
+     */
+    private final char[][] buffers;
+    
+    /**
+     * The hashes of the deletions.
+     */
+    private long[] hashes = new long[32];
+    
+    /**
+     * The number of hashes.
+     */
+    private int count = 0;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param maxDeletes the maximum number of characters to delete
+     */
+    Deletions(final int maxDeletes)
+    {
+      buffers = new char[maxDeletes + 1][PREFIX_LENGTH];
+    }
+    
+    
+    /**
+     * Generate the hashes of the strings made by deleting up to
+     * a number of characters from the start of a string,
+     * including the start itself.
+     * 
+     * @param str the string
+     * @param maxDeletes the maximum number of characters to delete
+     * @return the number of hashes
+     */
+    int generate(final String str, final int maxDeletes)
+    {
+      final int nLen = Math.min(str.length(), PREFIX_LENGTH);
+      str.getChars(0, nLen, buffers[0], 0);
+      count = 0;
+      delete(0, nLen, 0, maxDeletes);
+      return count;
+    }
+    
+    
+    /**
+     * Save the hash of the string in a buffer, and of the strings
+     * made by deleting characters from it, from a position on.
+     * 
+     * @param level the number of characters deleted so far
+     * @param nLen the length of the string in the buffer
+     * @param start the first position to delete
+     * @param maxDeletes the maximum number of characters to delete
+     */
+    private void delete(final int level, final int nLen,
+                        final int start, final int maxDeletes)
+    {
+      addHash(buffers[level], nLen);
+      if (level == maxDeletes)
+      {
+        return;
+      }
+      
+      // Delete each character after the last one deleted
+      final char[] src = buffers[level];
+      final char[] dest = buffers[level + 1];
+      for (int i = start; i < nLen; ++i)
+      {
+        System.arraycopy(src, 0, dest, 0, i);
+        System.arraycopy(src, i + 1, dest, i, nLen - i - 1);
+        delete(level + 1, nLen - 1, i, maxDeletes);
+      }
+    }
+    
+    
+    /**
+     * Save the hash of a string, using the 64-bit FNV-1a hash.
+     * 
+     * @param chars the characters of the string
+     * @param nLen the length of the string
+     */
+    private void addHash(final char[] chars, final int nLen)
+    {
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < nLen; ++i)
+      {
+        hash = (hash ^ chars[i]) * 0x100000001b3L;
+      }
+      
+      if (count == hashes.length)
+      {
+        hashes = Arrays.copyOf(hashes, count * 2);
+      }
+      
+      hashes[count++] = hash >>> (Long.SIZE - HASH_BITS);
+    }
+    
+    
+    /**
+     * Return a hash, with only its lowest HASH_BITS bits set.
+     * 
+     * @param index the position of the hash
+     * @return the hash
+     */
+    long getHash(final int index)
+    {
+      return hashes[index];
+    }
+  }
+}
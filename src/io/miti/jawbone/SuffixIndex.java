@@ -0,0 +1,178 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.Arrays;
+
+/**
+ * This class is an index of the lemmas in a table of index
+ * terms, sorted by their reversed spelling, so the lemmas that
+ * end with a suffix are a contiguous range, found with a binary
+ * search.  Only the term IDs are stored; the lemmas are read
+ * from the table when they're compared.  As in the index files,
+ * spaces are compared as underscores.
+ * 
+ * @author mwallace
+ */
+final class SuffixIndex
+{
+  /**
+   * The table of index terms.
+   */
+  private final IndexTermTable table;
+  
+  /**
+   * The term IDs, sorted by reversed lemma.
+   */
+  private final int[] order;
+  
+  
+  /**
+   * Constructor taking the table to index.
+   * 
+   * @param termTable the table of index terms
+   */
+  SuffixIndex(final IndexTermTable termTable)
+  {
+    table = termTable;
+    
+    // Sort the IDs by the reversed keys
+    final int nSize = table.size();
+    final String[] reversed = new String[nSize];
+    Integer[] ids = new Integer[nSize];
+    for (int id = 0; id < nSize; ++id)
+    {
+      reversed[id] = new StringBuilder(Utility.getIndexKey(table.getLemma(id)))
+                           .reverse().toString();
+      ids[id] = Integer.valueOf(id);
+    }
+    
+    Arrays.sort(ids, new java.util.Comparator<Integer>()
+    {
+      public int compare(final Integer id1, final Integer id2)
+      {
+        return reversed[id1.intValue()].compareTo(reversed[id2.intValue()]);
+      }
+    });
+    
+    order = new int[nSize];
+    for (int i = 0; i < nSize; ++i)
+    {
+      order[i] = ids[i].intValue();
+    }
+  }
+  
+  
+  /**
+   * Compare the end of a lemma with a suffix, from the last
+   * character back.
+   * 
+   * @param lemma the lemma
+   * @param suffix the suffix
+   * @return 0 if the lemma ends with the suffix, or else the
+   *         result of comparing the reversed lemma with the
+   *         reversed suffix
+   */
+  private static int compareSuffix(final String lemma, final String suffix)
+  {
+    final int nLen1 = lemma.length();
+    final int nLen2 = suffix.length();
+    final int nLen = Math.min(nLen1, nLen2);
+    for (int i = 1; i <= nLen; ++i)
+    {
+      char ch1 = lemma.charAt(nLen1 - i);
+      char ch2 = suffix.charAt(nLen2 - i);
+      if (ch1 == ' ')
+      {
+        ch1 = '_';
+      }
+      if (ch2 == ' ')
+      {
+        ch2 = '_';
+      }
+      
+      if (ch1 != ch2)
+      {
+        return (ch1 - ch2);
+      }
+    }
+    
+    // The lemma ends with the suffix, unless it's shorter
+    return ((nLen1 < nLen2) ? -1 : 0);
+  }
+  
+  
+  /**
+   * Return the position in the sorted order of the first lemma
+   * that compares with the suffix at or above the limit.
+   * 
+   * @param suffix the suffix
+   * @param limit the lowest comparison result to accept (0 or 1)
+   * @return the position in the sorted order
+   */
+  private int findFirst(final String suffix, final int limit)
+  {
+    int low = 0;
+    int high = order.length;
+    while (low < high)
+    {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compareSuffix(table.getLemma(order[mid]), suffix);
+      if (((cmp < 0) ? -1 : ((cmp > 0) ? 1 : 0)) < limit)
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    
+    return low;
+  }
+  
+  
+  /**
+   * Return the IDs of the terms with lemmas that end with
+   * the suffix, in increasing order.
+   * 
+   * @param suffix the suffix
+   * @return the IDs of the matching terms
+   */
+  IndexTermTable.Candidates find(final String suffix)
+  {
+    final int nStart = findFirst(suffix, 0);
+    final int nEnd = findFirst(suffix, 1);
+    
+    // Return the IDs in the order of the table
+    int[] ids = Arrays.copyOfRange(order, nStart, nEnd);
+    Arrays.sort(ids);
+    return new IndexTermTable.Candidates(ids, ids.length);
+  }
+}
@@ -105,6 +105,17 @@ public final class Synset
    */
   private boolean loaded = false;
   
+  /**
+   * The snapshot holding this synset, if this is a view of a
+   * synset record in a snapshot.
+   */
+  private Snapshot store = null;
+  
+  /**
+   * The position of the record for this synset in the snapshot.
+   */
+  private int record = -1;
+  
   
   /**
    * Default constructor.
@@ -136,6 +147,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getGloss(record);
+    }
+    
     return gloss;
   }
   
@@ -157,6 +173,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getLexFilenum(record);
+    }
+    
     return lexFilenum;
   }
   
@@ -178,6 +199,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getWordCount(record);
+    }
+    
     return numWords;
   }
   
@@ -204,6 +230,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getPointerCount(record);
+    }
+    
     return pointerCount;
   }
   
@@ -232,6 +263,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getPointerList(record);
+    }
+    
     return listPointers;
   }
   
@@ -247,11 +283,30 @@ public final class Synset
    * </ul>
    * (Added by LLT 20 April 2007)
    * 
+   * The part of speech passed to the constructor is used, so
+   * this doesn't load the synset (adjective satellites have the
+   * same prefix as adjectives).
+   * 
    * @return The 9-digit unique ID of this synset.
    */
   public long get9DigitID()
   {
-    return this.getPOS().getPrefix() * 100000000 + this.getSynsetOffset();
+    return get9DigitID(pos, synsetOffset);
+  }
+  
+  
+  /**
+   * Returns the 9-digit ID of the synset with the specified
+   * part of speech and offset.
+   * 
+   * @param partOfSpeech the part of speech
+   * @param offset the offset of the synset in the data file
+   * @return the 9-digit ID of the synset
+   */
+  static long get9DigitID(final PartOfSpeech partOfSpeech, final long offset)
+  {
+    final long prefix = ((partOfSpeech == null) ? 0L : partOfSpeech.getPrefix());
+    return (prefix * 100000000L) + offset;
   }
   
   
@@ -359,6 +414,11 @@ public final class Synset
     checkLoad();
     
     // Return the list of synonyms in this synset
+    if (store != null)
+    {
+      return store.getWordList(record, pos, synsetOffset);
+    }
+    
     return listWords;
   }
   
@@ -388,6 +448,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getFrameCount(record);
+    }
+    
     return frameCount;
   }
   
@@ -418,6 +483,11 @@ public final class Synset
     // Check if this data has been loaded.  If not, load it.
     checkLoad();
     
+    if (store != null)
+    {
+      return store.getFrameList(record);
+    }
+    
     return listFrames;
   }
   
@@ -445,31 +515,36 @@ public final class Synset
   @Override
   public String toString()
   {
-    // Check if this data has been loaded.  If not, load it.
-    checkLoad();
+    // Get the fields, which loads the data if needed
+    final List<WordData> words = getWord();
+    final List<Pointer> pointers = getPointers();
+    final List<FrameData> frames = getFrames();
+    final int nNumWords = getNumWords();
+    final int nPointerCount = getPointerCount();
+    final int nFrameCount = getFrameCount();
     
     // Declare our string buffer
     StringBuffer buf = new StringBuffer(200);
     
     // Build the string
     buf.append("Synset-Offset: ").append(synsetOffset)
-       .append("  Lex-FileNum: ").append(lexFilenum)
+       .append("  Lex-FileNum: ").append(getLexFilenum())
        .append("  POS: ").append(pos)
-       .append("  Num-Words: ").append(numWords)
-       .append("\nNum-Ptrs: ").append(pointerCount)
-       .append("  Num-Frames: ").append(frameCount)
-       .append("\nGloss: ").append(gloss);
+       .append("  Num-Words: ").append(nNumWords)
+       .append("\nNum-Ptrs: ").append(nPointerCount)
+       .append("  Num-Frames: ").append(nFrameCount)
+       .append("\nGloss: ").append(getGloss());
     
     int index = 0;
-    if (listWords == null)
+    if (words == null)
     {
       buf.append("\nList-Words: (null)");
     }
     else
     {
-      buf.append("\nList of Words (").append(numWords)
+      buf.append("\nList of Words (").append(nNumWords)
          .append(")");
-      for (WordData word : listWords)
+      for (WordData word : words)
       {
         buf.append("\n  #").append(index + 1).append(": ")
            .append(word.toString());
@@ -478,15 +553,15 @@ public final class Synset
     }
     
     index = 0;
-    if (listPointers == null)
+    if (pointers == null)
     {
       buf.append("\nList-Pointers: (null)");
     }
     else
     {
-      buf.append("\nList of Pointers (").append(pointerCount)
+      buf.append("\nList of Pointers (").append(nPointerCount)
          .append(")");
-      for (Pointer ptr : listPointers)
+      for (Pointer ptr : pointers)
       {
         buf.append("\n  #").append(index + 1).append(": ")
            .append(ptr.toString());
@@ -495,15 +570,15 @@ public final class Synset
     }
     
     index = 0;
-    if (listFrames == null)
+    if (frames == null)
     {
       buf.append("\nList-Frames: (no frames)");
     }
     else
     {
-      buf.append("\nList of Frames (").append(frameCount)
+      buf.append("\nList of Frames (").append(nFrameCount)
          .append(")");
-      for (FrameData frame : listFrames)
+      for (FrameData frame : frames)
       {
         buf.append("\n  #").append(index + 1).append(": ")
            .append(frame.toString());
@@ -517,7 +592,8 @@ public final class Synset
   
   
   /**
-   * Return whether this object equals another.
+   * Return whether this object equals another.  Two synsets
+   * are equal if they have the same 9-digit ID.
    * 
    * @param obj the object to compare to
    * @return whether the two objects are equal
@@ -537,17 +613,42 @@ public final class Synset
       return false;
     }
     
-    Synset other = (Synset) obj;
-    return this.getPOS().equals(other.getPOS()) 
-      && (this.getSynsetOffset() == other.getSynsetOffset())
-      && (this.getLexFilenum() == other.getLexFilenum());
+    // Compare the part of speech and offset, without loading either synset
+    return (get9DigitID() == ((Synset) obj).get9DigitID());
+  }
+  
+  
+  /**
+   * Return the hash code for this object, from the same fields
+   * as equals().
+   * 
+   * @return the hash code
+   */
+  @Override
+  public int hashCode()
+  {
+    final long id = get9DigitID();
+    return (int) (id ^ (id >>> 32));
+  }
+  
+  
+  /**
+   * Set whether the data has been loaded.  This is set before
+   * populating a synset from a line that's already been read,
+   * so it doesn't try to load itself from the data file.
+   * 
+   * @param bLoaded whether the data has been loaded
+   */
+  void setLoaded(final boolean bLoaded)
+  {
+    loaded = bLoaded;
   }
   
   
   /**
    * Check if the data has been loaded.  If not, load it.
    */
-  private void checkLoad()
+  private synchronized void checkLoad()
   {
     // Check if the data has been loaded already
     if (loaded)
@@ -566,6 +667,38 @@ public final class Synset
       return;
     }
     
+    // Read the synset from the snapshot, if there is one
+    Snapshot snapshot = Dictionary.getInstance().getSnapshot();
+    if ((snapshot != null) && (Dictionary.getUseSynsetViews()))
+    {
+      // Read the fields from the record each time they're requested
+      final int position = snapshot.findRecord(pos, synsetOffset);
+      if (position >= 0)
+      {
+        store = snapshot;
+        record = position;
+        pos = PartOfSpeech.getInstance(snapshot.getPosType(position));
+        return;
+      }
+    }
+    else if ((snapshot != null) &&
+             (snapshot.loadSynset(this, pos, synsetOffset)))
+    {
+      return;
+    }
+    
+    // Read the line from the memory-mapped data file, if there is one
+    if (Dictionary.getUseMappedDataFiles())
+    {
+      MappedDataFile dataFile = Dictionary.getInstance().getMappedDataFile(pos);
+      if (dataFile != null)
+      {
+        // Parse the line and populate this
+        ParseDataFile.process(dataFile.getLine(synsetOffset), this);
+        return;
+      }
+    }
+    
     // Get the input filename
     final String inputFile = Utility.getFilename(pos, false);
     
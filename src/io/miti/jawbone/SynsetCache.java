@@ -0,0 +1,109 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class holds one shared Synset object for each synset,
+ * keyed on its 9-digit ID, so every reference to a synset (from
+ * a pointer, an index term, or Dictionary.getSynset()) returns
+ * the same object, and the synset is only loaded from the data
+ * files once.  The number of synsets kept is limited; when the
+ * limit is reached, the least recently used one is dropped.
+ * 
+ * @author mwallace
+ */
+final class SynsetCache
+{
+  /**
+   * The maximum number of synsets to keep.
+   */
+  private final int maxSize;
+  
+  /**
+   * The synsets, in order of use (least recent first).
+   */
+  private final Map<Long, Synset> synsets;
+  
+  
+  /**
+   * Constructor taking the maximum number of synsets to keep.
+   * 
+   * @param nMaxSize the maximum number of synsets to keep
+   */
+  SynsetCache(final int nMaxSize)
+  {
+    maxSize = nMaxSize;
+    synsets = new LinkedHashMap<Long, Synset>(Math.min(maxSize, 1024), 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+      
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Long, Synset> eldest)
+      {
+        return (size() > maxSize);
+      }
+    };
+  }
+  
+  
+  /**
+   * Return the maximum number of synsets to keep.
+   * 
+   * @return the maximum number of synsets to keep
+   */
+  int getMaxSize()
+  {
+    return maxSize;
+  }
+  
+  
+  /**
+   * Return the shared synset at the offset, creating it
+   * (without loading it) if it isn't in the cache.
+   * 
+   * @param offset the offset of the synset in the data file
+   * @param pos the part of speech
+   * @return the shared synset
+   */
+  synchronized Synset get(final long offset, final PartOfSpeech pos)
+  {
+    final Long id = Long.valueOf(Synset.get9DigitID(pos, offset));
+    Synset synset = synsets.get(id);
+    if (synset == null)
+    {
+      synset = new Synset(offset, pos);
+      synsets.put(id, synset);
+    }
+    
+    return synset;
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import io.miti.jawbone.filter.TermAutomaton;
+
+import java.util.Arrays;
+
+/**
+ * This class finds the keys in a trie of the lemmas that are
+ * accepted by an automaton.  It walks the trie depth-first,
+ * stepping the automaton once for each node, so the characters
+ * of a prefix shared by many lemmas are only read once, and a
+ * branch is skipped as soon as the automaton's state is dead.
+ * The keys use underscores for spaces, so each underscore is
+ * read as a space, as in the lemmas passed to the filters.
+ * 
+ * @author mwallace
+ */
+final class TrieMatcher
+{
+  /**
+   * The automaton to run.
+   */
+  private final TermAutomaton automaton;
+  
+  /**
+   * The positions of the matching keys.
+   */
+  private int[] matches = null;
+  
+  /**
+   * The number of matching keys.
+   */
+  private int count = 0;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param termAutomaton the automaton to run
+   */
+  TrieMatcher(final TermAutomaton termAutomaton)
+  {
+    automaton = termAutomaton;
+  }
+  
+  
+  /**
+   * Return the positions of the keys in the trie that are
+   * accepted by the automaton, in increasing order.
+   * 
+   * @param trie the trie to search
+   * @return the positions of the matching keys
+   */
+  synchronized int[] find(final LemmaTrie trie)
+  {
+    matches = new int[16];
+    count = 0;
+    final long start = automaton.getStartState();
+    if (automaton.isAccepting(start) && trie.isTerminal(LemmaTrie.ROOT))
+    {
+      addMatch(trie.getFirst(LemmaTrie.ROOT));
+    }
+    
+    if (!automaton.isDead(start))
+    {
+      walk(trie, LemmaTrie.ROOT, start);
+    }
+    
+    // Return the positions in increasing order
+    int[] result = Arrays.copyOf(matches, count);
+    matches = null;
+    Arrays.sort(result);
+    return result;
+  }
+  
+  
+  /**
+   * Visit the children of a node, and their children while
+   * the automaton can still accept.
+   * 
+   * @param trie the trie to search
+   * @param node the node
+   * @param state the state of the automaton at the node
+   */
+  private void walk(final LemmaTrie trie, final int node, final long state)
+  {
+    final int nEnd = trie.getChildEnd(node);
+    for (int child = trie.getChildStart(node); child < nEnd; ++child)
+    {
+      final char label = trie.getLabel(child);
+      final long next = automaton.step(state, ((label == '_') ? ' ' : label));
+      if (automaton.isDead(next))
+      {
+        continue;
+      }
+      
+      // Save the key that ends here, if it matches
+      if (trie.isTerminal(child) && automaton.isAccepting(next))
+      {
+        addMatch(trie.getFirst(child));
+      }
+      
+      walk(trie, child, next);
+    }
+  }
+  
+  
+  /**
+   * Add the position of a matching key to the list.
+   * 
+   * @param position the position of the key
+   */
+  private void addMatch(final int position)
+  {
+    if (count == matches.length)
+    {
+      matches = Arrays.copyOf(matches, count * 2);
+    }
+    
+    matches[count++] = position;
+  }
+}
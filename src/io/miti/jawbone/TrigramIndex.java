@@ -0,0 +1,329 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This class is an inverted index of the three-character
+ * sequences (trigrams) in the lemmas of a table of index terms.
+ * Each trigram has a sorted list of the IDs of the terms whose
+ * lemmas contain it, so the terms that could contain a phrase
+ * are found by intersecting the lists for the trigrams in the
+ * phrase.  The lemmas are indexed in lower case, so the
+ * candidates for a phrase include the matches with or without
+ * ignoring case; the filter still checks each of them.
+ * 
+ * @author mwallace
+ */
+final class TrigramIndex
+{
+  /**
+   * The number of characters in a trigram.
+   */
+  private static final int GRAM_LENGTH = 3;
+  
+  /**
+   * The sorted list of trigrams, packed into longs.
+   */
+  private final long[] grams;
+  
+  /**
+   * The position in postings of the first term ID for each
+   * trigram.  This has one more entry than grams.
+   */
+  private final int[] postingStart;
+  
+  /**
+   * The term IDs for all trigrams, in increasing order
+   * for each trigram.
+   */
+  private final int[] postings;
+  
+  
+  /**
+   * Constructor taking the table to index.
+   * 
+   * @param table the table of index terms
+   */
+  TrigramIndex(final IndexTermTable table)
+  {
+    // Collect the trigrams of all lemmas
+    final int nSize = table.size();
+    final String[] lemmas = new String[nSize];
+    int nTotal = 0;
+    for (int id = 0; id < nSize; ++id)
+    {
+      lemmas[id] = table.getLemma(id).toLowerCase();
+      nTotal += Math.max(0, lemmas[id].length() - GRAM_LENGTH + 1);
+    }
+    
+    long[] all = new long[nTotal];
+    int nCount = 0;
+    for (int id = 0; id < nSize; ++id)
+    {
+      final String lemma = lemmas[id];
+      final int nEnd = lemma.length() - GRAM_LENGTH;
+      for (int i = 0; i <= nEnd; ++i)
+      {
+        all[nCount++] = getGram(lemma, i);
+      }
+    }
+    
+    // Save the distinct trigrams
+    Arrays.sort(all);
+    int nGrams = 0;
+    for (int i = 0; i < nTotal; ++i)
+    {
+      if ((nGrams == 0) || (all[i] != all[nGrams - 1]))
+      {
+        all[nGrams++] = all[i];
+      }
+    }
+    grams = Arrays.copyOf(all, nGrams);
+    all = null;
+    
+    // Count the terms for each trigram, counting a term once
+    // if its lemma contains the trigram more than once
+    postingStart = new int[nGrams + 1];
+    final int[] lastID = new int[nGrams];
+    Arrays.fill(lastID, -1);
+    for (int id = 0; id < nSize; ++id)
+    {
+      final String lemma = lemmas[id];
+      final int nEnd = lemma.length() - GRAM_LENGTH;
+      for (int i = 0; i <= nEnd; ++i)
+      {
+        final int gram = Arrays.binarySearch(grams, getGram(lemma, i));
+        if (lastID[gram] != id)
+        {
+          lastID[gram] = id;
+          ++postingStart[gram + 1];
+        }
+      }
+    }
+    
+    for (int i = 0; i < nGrams; ++i)
+    {
+      postingStart[i + 1] += postingStart[i];
+    }
+    
+    // Fill in the term IDs, in increasing order
+    postings = new int[postingStart[nGrams]];
+    final int[] next = Arrays.copyOf(postingStart, nGrams);
+    Arrays.fill(lastID, -1);
+    for (int id = 0; id < nSize; ++id)
+    {
+      final String lemma = lemmas[id];
+      final int nEnd = lemma.length() - GRAM_LENGTH;
+      for (int i = 0; i <= nEnd; ++i)
+      {
+        final int gram = Arrays.binarySearch(grams, getGram(lemma, i));
+        if (lastID[gram] != id)
+        {
+          lastID[gram] = id;
+          postings[next[gram]++] = id;
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * Pack the trigram starting at a position in a string into a long.
+   * 
+   * @param str the string
+   * @param index the position of the first character
+   * @return the packed trigram
+   */
+  private static long getGram(final String str, final int index)
+  {
+    return (((long) str.charAt(index) << 32) |
+            ((long) str.charAt(index + 1) << 16) |
+            (long) str.charAt(index + 2));
+  }
+  
+  
+  /**
+   * Return the IDs of the terms whose lemmas contain all of
+   * the trigrams in all of the phrases.  Phrases shorter than
+   * a trigram don't narrow the search.
+   * 
+   * @param phrases the phrases
+   * @return the IDs of the candidate terms, or null if none of
+   *         the phrases is long enough to narrow the search
+   */
+  IndexTermTable.Candidates findAll(final Collection<String> phrases)
+  {
+    int[] ids = null;
+    int nCount = 0;
+    for (String phrase : phrases)
+    {
+      final String key = phrase.toLowerCase();
+      final int nEnd = key.length() - GRAM_LENGTH;
+      for (int i = 0; i <= nEnd; ++i)
+      {
+        // Look up the trigram
+        final int gram = Arrays.binarySearch(grams, getGram(key, i));
+        if (gram < 0)
+        {
+          return new IndexTermTable.Candidates(0, 0);
+        }
+        
+        // Keep the IDs that are also in the list for this trigram
+        final int nStart = postingStart[gram];
+        final int nLength = postingStart[gram + 1] - nStart;
+        if (ids == null)
+        {
+          ids = Arrays.copyOfRange(postings, nStart, nStart + nLength);
+          nCount = nLength;
+        }
+        else
+        {
+          nCount = intersect(ids, nCount, nStart, nLength);
+        }
+        
+        if (nCount == 0)
+        {
+          return new IndexTermTable.Candidates(0, 0);
+        }
+      }
+    }
+    
+    return ((ids == null) ? null : new IndexTermTable.Candidates(ids, nCount));
+  }
+  
+  
+  /**
+   * Return the IDs of the terms whose lemmas contain all of the
+   * trigrams in at least one of the phrases.
+   * 
+   * @param phrases the phrases
+   * @return the IDs of the candidate terms, or null if one of
+   *         the phrases is too short to narrow the search
+   */
+  IndexTermTable.Candidates findSome(final Collection<String> phrases)
+  {
+    int[] ids = new int[0];
+    int nCount = 0;
+    for (String phrase : phrases)
+    {
+      if (phrase.length() < GRAM_LENGTH)
+      {
+        return null;
+      }
+      
+      // Add the candidates for this phrase
+      final IndexTermTable.Candidates list =
+        findAll(Collections.singletonList(phrase));
+      final int nSize = list.size();
+      if (nSize > 0)
+      {
+        int[] merged = new int[nCount + nSize];
+        int nMerged = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < nCount) || (j < nSize))
+        {
+          if ((j == nSize) || ((i < nCount) && (ids[i] < list.get(j))))
+          {
+            merged[nMerged++] = ids[i++];
+          }
+          else
+          {
+            if ((i < nCount) && (ids[i] == list.get(j)))
+            {
+              ++i;
+            }
+            
+            merged[nMerged++] = list.get(j++);
+          }
+        }
+        
+        ids = merged;
+        nCount = nMerged;
+      }
+    }
+    
+    return new IndexTermTable.Candidates(ids, nCount);
+  }
+  
+  
+  /**
+   * Remove the IDs from a list that aren't in the postings for a
+   * trigram.  Both lists are sorted.  The longer list is searched
+   * with a binary search, when the other one is much shorter.
+   * 
+   * @param ids the list of IDs, which is updated
+   * @param nCount the number of IDs in the list
+   * @param nStart the position of the postings for the trigram
+   * @param nLength the number of postings for the trigram
+   * @return the number of IDs left in the list
+   */
+  private int intersect(final int[] ids, final int nCount,
+                        final int nStart, final int nLength)
+  {
+    int nKept = 0;
+    int pos = nStart;
+    final int nEnd = nStart + nLength;
+    final boolean search = ((nCount * 16) < nLength);
+    for (int i = 0; (i < nCount) && (pos < nEnd); ++i)
+    {
+      final int id = ids[i];
+      if (search)
+      {
+        pos = Arrays.binarySearch(postings, pos, nEnd, id);
+        if (pos >= 0)
+        {
+          ids[nKept++] = id;
+        }
+        else
+        {
+          pos = -pos - 1;
+        }
+      }
+      else
+      {
+        while ((pos < nEnd) && (postings[pos] < id))
+        {
+          ++pos;
+        }
+        
+        if ((pos < nEnd) && (postings[pos] == id))
+        {
+          ids[nKept++] = id;
+        }
+      }
+    }
+    
+    return nKept;
+  }
+}
@@ -51,6 +51,12 @@ public final class Utility
   private static final String[] indexFiles = {"index.adv",
            "index.adj", "index.noun", "index.verb"};
   
+  /**
+   * The parts of speech of the files, in the same order.
+   */
+  private static final PartOfSpeech[] filePOS = {PartOfSpeech.ADVERB,
+           PartOfSpeech.ADJECTIVE, PartOfSpeech.NOUN, PartOfSpeech.VERB};
+  
   /**
    * Whether to delay loading synset numbers for synonyms
    * in a synset list.
@@ -68,15 +74,39 @@ public final class Utility
   
   
   /**
-   * Return the filename for the part of speech and
-   * type of file (index or data).
+   * Return the number of parts of speech that have their own
+   * index and data files.
+   * 
+   * @return the number of index (or data) files
+   */
+  static int getFileCount()
+  {
+    return indexFiles.length;
+  }
+  
+  
+  /**
+   * Return the part of speech at the specified position in
+   * the list of files.
+   * 
+   * @param index the position in the list of files
+   * @return the part of speech of the files at that position
+   */
+  static PartOfSpeech getFilePartOfSpeech(final int index)
+  {
+    return filePOS[index];
+  }
+  
+  
+  /**
+   * Return the position of the part of speech in the list of
+   * files.  Adjective satellites are stored in the adjective
+   * files, so they share a position with adjectives.
    * 
    * @param pos the part of speech
-   * @param indexFile whether the filename is for the index file
-   * @return the name of the input file for the part of speech
+   * @return the index of the part of speech in the list of files
    */
-  public static String getFilename(final PartOfSpeech pos,
-                                   final boolean indexFile)
+  static int getFileIndex(final PartOfSpeech pos)
   {
     // Check the part of speech
     int index = -1;
@@ -88,7 +118,8 @@ public final class Utility
     {
       index = 0;
     }
-    else if (pos.equals(PartOfSpeech.ADJECTIVE))
+    else if ((pos.equals(PartOfSpeech.ADJECTIVE)) ||
+             (pos.equals(PartOfSpeech.ADJECTIVE_SATELLITE)))
     {
       index = 1;
     }
@@ -97,8 +128,141 @@ public final class Utility
       index = 3;
     }
     
+    return index;
+  }
+  
+  
+  /**
+   * Return the key for a lemma as it's stored in the index
+   * files, which use an underscore in place of each space.
+   * 
+   * @param lemma the lemma
+   * @return the lemma as it appears in the index files
+   */
+  static String getIndexKey(final String lemma)
+  {
+    // Check if the lemma is null or has no spaces
+    if ((lemma == null) || (lemma.indexOf(' ') < 0))
+    {
+      return lemma;
+    }
+    
+    // Replace each space with an _
+    return lemma.replace(' ', '_');
+  }
+  
+  
+  /**
+   * Compare two lemmas using the order of the index files.  The
+   * files store each space in a lemma as an underscore, and are
+   * sorted on that form, so spaces are compared as underscores.
+   * 
+   * @param lemma1 the first lemma
+   * @param lemma2 the second lemma
+   * @return the result of the comparison
+   */
+  static int compareLemmas(final CharSequence lemma1, final CharSequence lemma2)
+  {
+    // Save the lengths
+    final int nLen1 = lemma1.length();
+    final int nLen2 = lemma2.length();
+    final int nLen = Math.min(nLen1, nLen2);
+    
+    // Compare each character until there's a difference
+    for (int i = 0; i < nLen; ++i)
+    {
+      char ch1 = lemma1.charAt(i);
+      char ch2 = lemma2.charAt(i);
+      if (ch1 != ch2)
+      {
+        // Treat spaces as underscores
+        if (ch1 == ' ')
+        {
+          ch1 = '_';
+        }
+        if (ch2 == ' ')
+        {
+          ch2 = '_';
+        }
+        
+        if (ch1 != ch2)
+        {
+          return (ch1 - ch2);
+        }
+      }
+    }
+    
+    // One is a prefix of the other, so the shorter one is first
+    return (nLen1 - nLen2);
+  }
+  
+  
+  /**
+   * Return whether a lemma starts with a prefix, using the same
+   * rule as compareLemmas() (spaces are treated as underscores).
+   * 
+   * @param lemma the lemma
+   * @param prefix the prefix
+   * @return whether lemma starts with prefix
+   */
+  static boolean lemmaStartsWith(final CharSequence lemma, final String prefix)
+  {
+    // Check the lengths
+    final int nLen = prefix.length();
+    if (lemma.length() < nLen)
+    {
+      return false;
+    }
+    
+    // Compare the characters of the prefix
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch1 = lemma.charAt(i);
+      final char ch2 = prefix.charAt(i);
+      if ((ch1 != ch2) &&
+          (((ch1 != ' ') && (ch1 != '_')) || ((ch2 != ' ') && (ch2 != '_'))))
+      {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
+  
+  /**
+   * Return the filename for the part of speech and
+   * type of file (index or data).
+   * 
+   * @param pos the part of speech
+   * @param indexFile whether the filename is for the index file
+   * @return the name of the input file for the part of speech
+   */
+  public static String getFilename(final PartOfSpeech pos,
+                                   final boolean indexFile)
+  {
+    return getFilename(Dictionary.getDataFilesPath(), pos, indexFile);
+  }
+  
+  
+  /**
+   * Return the filename for the part of speech and
+   * type of file (index or data) in the specified directory.
+   * 
+   * @param path the directory containing the data files
+   * @param pos the part of speech
+   * @param indexFile whether the filename is for the index file
+   * @return the name of the input file for the part of speech
+   */
+  static String getFilename(final String path,
+                            final PartOfSpeech pos,
+                            final boolean indexFile)
+  {
+    // Check the part of speech
+    final int index = getFileIndex(pos);
+    
     // Generate a File object pointing to the file
-    File file = new File(Dictionary.getDataFilesPath(),
+    File file = new File(path,
         ((indexFile) ? indexFiles[index] : dataFiles[index]));
     
     // This will hold the file name
@@ -73,6 +73,17 @@ public final class WordData
    */
   private PartOfSpeech pos;
   
+  /**
+   * The snapshot holding this word, if this is a view of a
+   * synset record in a snapshot.
+   */
+  private Snapshot store = null;
+  
+  /**
+   * The position of this word in the snapshot.
+   */
+  private int position = -1;
+  
   
   /**
    * Default constructor.
@@ -106,11 +117,55 @@ public final class WordData
   }
   
   
+  /**
+   * Constructor for a view of a word in a synset record in a
+   * snapshot.  The fields are read from the snapshot each time
+   * they're requested.
+   * 
+   * @param snapshot the snapshot holding the word
+   * @param nPosition the position of the word in the snapshot
+   * @param pPos the part of speech
+   * @param lOffset the offset into the data file
+   */
+  WordData(final Snapshot snapshot,
+           final int nPosition,
+           final PartOfSpeech pPos,
+           final long lOffset)
+  {
+    store = snapshot;
+    position = nPosition;
+    pos = pPos;
+    dataFileOffset = lOffset;
+  }
+  
+  
+  /**
+   * If this is a view of a word in a snapshot, copy the fields
+   * from the snapshot, so they can be changed.
+   */
+  private void detach()
+  {
+    if (store != null)
+    {
+      word = store.getWord(position);
+      lexID = store.getLexID(position);
+      syntacticMarker = store.getSyntacticMarker(position);
+      senseNum = store.getSenseNumber(position);
+      store = null;
+    }
+  }
+  
+  
   /**
    * @return Returns the lexicon ID.
    */
   public int getLexID()
   {
+    if (store != null)
+    {
+      return store.getLexID(position);
+    }
+    
     return lexID;
   }
   
@@ -120,6 +175,7 @@ public final class WordData
    */
   public void setLexID(final int nLexID)
   {
+    detach();
     lexID = nLexID;
   }
   
@@ -129,6 +185,11 @@ public final class WordData
    */
   public String getWord()
   {
+    if (store != null)
+    {
+      return store.getWord(position);
+    }
+    
     return word;
   }
   
@@ -138,6 +199,7 @@ public final class WordData
    */
   public void setWord(final String sWord)
   {
+    detach();
     word = sWord;
   }
 
@@ -147,6 +209,11 @@ public final class WordData
    */
   public String getSyntacticMarker()
   {
+    if (store != null)
+    {
+      return store.getSyntacticMarker(position);
+    }
+    
     return syntacticMarker;
   }
 
@@ -156,6 +223,7 @@ public final class WordData
    */
   public void setSyntacticMarker(final String sSyntacticMarker)
   {
+    detach();
     syntacticMarker = sSyntacticMarker;
   }
   
@@ -179,6 +247,12 @@ public final class WordData
    */
   public int getSenseNumber()
   {
+    // Read it from the snapshot, if this is a view
+    if (store != null)
+    {
+      return store.getSenseNumber(position);
+    }
+    
     // Check if it's been loaded
     if (senseNum < 0)
     {
@@ -190,6 +264,21 @@ public final class WordData
   }
   
   
+  /**
+   * Return the WordNet sense key of this word in its synset,
+   * e.g., "dog%1:05:00::".  This loads the synset, to get its
+   * lexicographer file number (and for an adjective satellite,
+   * the first word of its head synset).
+   * 
+   * @return the sense key
+   */
+  public String getSenseKey()
+  {
+    return SenseKeyIndex.getSenseKey(this,
+               Dictionary.getInstance().getSynset(dataFileOffset, pos));
+  }
+  
+  
   /**
    * Set the sense number.
    * 
@@ -197,6 +286,7 @@ public final class WordData
    */
   public void setSenseNumber(final int lSenseNumber)
   {
+    detach();
     senseNum = lSenseNumber;
   }
   
@@ -212,11 +302,14 @@ public final class WordData
     StringBuffer buf = new StringBuffer(100);
     
     // Build the string
-    buf.append("Word: ").append(word).append("  Lexicon-ID: ")
-       .append(lexID).append("  Syntactic-Marker: ").append(syntacticMarker)
+    buf.append("Word: ").append(getWord()).append("  Lexicon-ID: ")
+       .append(getLexID()).append("  Syntactic-Marker: ")
+       .append(getSyntacticMarker())
        .append("\nPOS: ").append(pos.toString()).append("  Offset: ")
        .append(Long.toString(dataFileOffset)).append("  Sense");
     
+    final int senseNum = ((store == null) ? this.senseNum
+                                          : store.getSenseNumber(position));
     if (senseNum < 0)
     {
       buf.append(": <Not loaded>");
@@ -0,0 +1,78 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.demo;
+
+import io.miti.jawbone.SnapshotWriter;
+
+/**
+ * This class compiles the WordNet data files into a snapshot
+ * file, which can be opened with Dictionary.initialize(String, String).
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SnapshotCompiler
+{
+  /**
+   * Default constructor.
+   */
+  private SnapshotCompiler()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Main entry point for the application.
+   * 
+   * @param args the directory of the data files, and the snapshot file
+   */
+  public static void main(final String[] args)
+  {
+    // Check the arguments
+    if (args.length != 2)
+    {
+      System.out.println("Usage: SnapshotCompiler <data directory> <snapshot file>");
+      return;
+    }
+    
+    // Compile the snapshot
+    final long start = System.currentTimeMillis();
+    if (SnapshotWriter.compile(args[0], args[1]))
+    {
+      final long time = System.currentTimeMillis() - start;
+      System.out.println("Wrote " + args[1] + " in " +
+                         Long.toString(time) + " ms");
+    }
+    else
+    {
+      System.out.println("The snapshot was not written");
+    }
+  }
+}
@@ -40,9 +40,9 @@ package io.miti.jawbone.filter;
 public final class AnagramFilter implements TermFilter
 {
   /**
-   * The source term.
+   * The characters of the source term.
    */
-  private final String term;
+  private final LetterBag bag;
   
   /**
    * Whether to ignore the case.
@@ -56,7 +56,7 @@ public final class AnagramFilter implements TermFilter
   private AnagramFilter()
   {
     super();
-    term = null;
+    bag = null;
     ignoreCase = false;
   }
   
@@ -75,77 +75,52 @@ public final class AnagramFilter implements TermFilter
     // Save whether to ignore the case
     ignoreCase = bIgnoreCase;
     
-    // Save the String parameter, after processing
-    term = buildData(word, ignoreCase);
+    // Save the characters of the String parameter
+    bag = new LetterBag(word, ignoreCase);
   }
   
   
   /**
-   * Determines if the term matches the source term.
+   * Returns the non-space characters of the source term, sorted
+   * (in lower case, if case is ignored).
    * 
-   * @param word the term to compare to the source term
-   * @return whether the terms match
+   * @return the sorted characters of the source term
    */
-  public boolean accept(final String word)
+  public String getLetters()
   {
-    // Save the String parameter, after processing
-    final String data = buildData(word, ignoreCase);
-    
-    // Return whether the strings are equal
-    return (term.equals(data));
+    return bag.getLetters();
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
   }
   
   
   /**
-   * Convert the argument into a String of the non-space
-   * characters in the term, with the characters sorted.
+   * Determines if the term matches the source term.  The term
+   * is an anagram if it has as many non-space characters as the
+   * source term, and they can all be taken from the source term.
    * 
-   * @param term the string to sort
-   * @param ignoreCase whether to ignore the string's case
-   * @return the normalized string
+   * @param word the term to compare to the source term
+   * @return whether the terms match
    */
-  private static String buildData(final String term,
-                                  final boolean ignoreCase)
+  public boolean accept(final String word)
   {
     // Check the term
-    if (term == null)
-    {
-      return "";
-    }
-    
-    // Get the string as an array
-    char[] chars;
-    if (ignoreCase)
-    {
-      // Get the string as lower-case (ignore case)
-      chars = term.toLowerCase().toCharArray();
-    }
-    else
-    {
-      // Get the string as-is (don't ignore case)
-      chars = term.toCharArray();
-    }
-    
-    // Sort the data
-    java.util.Arrays.sort(chars);
-    
-    // Put the non-space chars in an array
-    final int size = chars.length;
-    char[] data = new char[size];
-    int j = 0;
-    for (int i = 0; i < size; ++i)
+    if (word == null)
     {
-      // Only add non-spaces
-      if (chars[i] != ' ')
-      {
-        data[j++] = chars[i];
-      }
+      return (bag.getLetters().length() == 0);
     }
     
-    // Build the string
-    String value = new String(data, 0, j);
-    
-    // Return the built string
-    return value;
+    // Check the lengths before the characters
+    return ((LetterBag.countLetters(word) == bag.getLetters().length()) &&
+            (bag.contains(word)));
   }
 }
@@ -28,8 +28,11 @@
 
 package io.miti.jawbone.filter;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provide a filter for search terms that only
@@ -107,6 +110,28 @@ public final class ContainsAllFilter implements TermFilter
   }
   
   
+  /**
+   * Returns the set of phrases.
+   * 
+   * @return the set of phrases
+   */
+  public Set<String> getTerms()
+  {
+    return Collections.unmodifiableSet(terms.keySet());
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
   /**
    * Determines if the term matches the source term.
    * 
@@ -127,10 +152,11 @@ public final class ContainsAllFilter implements TermFilter
     // Iterate over the list of phrases to see if target
     // contains all of them
     boolean found = true;
-    for (String key : terms.keySet())
+    for (Map.Entry<String, Integer> entry : terms.entrySet())
     {
-      // Get the number of occurrences
-      final int count = terms.get(key);
+      // Get the phrase and the number of occurrences
+      final String key = entry.getKey();
+      final int count = entry.getValue().intValue();
       
       // See if it exists
       int index = target.indexOf(key);
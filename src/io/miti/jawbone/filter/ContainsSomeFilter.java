@@ -32,6 +32,7 @@
 package io.miti.jawbone.filter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -89,6 +90,28 @@ public final class ContainsSomeFilter implements TermFilter
   }
   
   
+  /**
+   * Returns the list of phrases.
+   * 
+   * @return the list of phrases
+   */
+  public List<String> getTerms()
+  {
+    return Collections.unmodifiableList(terms);
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
   /**
    * Determines if the term matches the source term.
    * 
@@ -0,0 +1,196 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+import java.util.Arrays;
+
+/**
+ * The multiset of the non-space characters in a term, used
+ * by the anagram filters.  A word is checked against the bag
+ * without building any objects for it.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class LetterBag
+{
+  /**
+   * Whether to ignore the case.
+   */
+  private final boolean ignoreCase;
+  
+  /**
+   * The non-space characters of the term, sorted.
+   */
+  private final String letters;
+  
+  /**
+   * The distinct characters, sorted.
+   */
+  private final char[] chars;
+  
+  /**
+   * The number of times each distinct character occurs.
+   */
+  private final int[] counts;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param term the term
+   * @param bIgnoreCase whether to ignore the case
+   */
+  LetterBag(final String term, final boolean bIgnoreCase)
+  {
+    ignoreCase = bIgnoreCase;
+    
+    // Save the sorted non-space characters
+    final int nLen = ((term == null) ? 0 : term.length());
+    char[] sorted = new char[nLen];
+    int nCount = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = term.charAt(i);
+      if (ch != ' ')
+      {
+        sorted[nCount++] = fold(ch);
+      }
+    }
+    
+    Arrays.sort(sorted, 0, nCount);
+    letters = new String(sorted, 0, nCount);
+    
+    // Count each distinct character
+    int nDistinct = 0;
+    int[] nums = new int[nCount];
+    for (int i = 0; i < nCount; ++i)
+    {
+      if ((nDistinct == 0) || (sorted[i] != sorted[nDistinct - 1]))
+      {
+        sorted[nDistinct++] = sorted[i];
+      }
+      
+      ++nums[nDistinct - 1];
+    }
+    
+    chars = Arrays.copyOf(sorted, nDistinct);
+    counts = Arrays.copyOf(nums, nDistinct);
+  }
+  
+  
+  /**
+   * Return a character with its case folded, if case is ignored.
+   * 
+   * @param ch the character
+   * @return the character to compare
+   */
+  private char fold(final char ch)
+  {
+    return (ignoreCase ? Character.toLowerCase(ch) : ch);
+  }
+  
+  
+  /**
+   * Return the non-space characters of the term, sorted.
+   * 
+   * @return the sorted characters
+   */
+  String getLetters()
+  {
+    return letters;
+  }
+  
+  
+  /**
+   * Return the number of non-space characters in a word.
+   * 
+   * @param word the word
+   * @return the number of non-space characters
+   */
+  static int countLetters(final String word)
+  {
+    int nCount = 0;
+    final int nLen = word.length();
+    for (int i = 0; i < nLen; ++i)
+    {
+      if (word.charAt(i) != ' ')
+      {
+        ++nCount;
+      }
+    }
+    
+    return nCount;
+  }
+  
+  
+  /**
+   * Return whether the non-space characters of a word can all
+   * be taken from the bag, each at most as many times as it
+   * occurs in the bag.
+   * 
+   * @param word the word
+   * @return whether the word can be built from the bag
+   */
+  boolean contains(final String word)
+  {
+    final int nLen = word.length();
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = fold(word.charAt(i));
+      if (ch == ' ')
+      {
+        continue;
+      }
+      
+      final int index = Arrays.binarySearch(chars, ch);
+      if (index < 0)
+      {
+        return false;
+      }
+      
+      // Count this character in the word, up to here
+      int nUsed = 1;
+      for (int j = 0; j < i; ++j)
+      {
+        if (fold(word.charAt(j)) == ch)
+        {
+          ++nUsed;
+        }
+      }
+      
+      if (nUsed > counts[index])
+      {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+}
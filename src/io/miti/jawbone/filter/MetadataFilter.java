@@ -0,0 +1,97 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+import io.miti.jawbone.IndexTerm;
+
+/**
+ * This defines the MetadataFilter interface, used to provide a
+ * filter on the fields of an index term other than the lemma
+ * (e.g., the number of senses).  The filter declares which
+ * fields it needs, so the search can check it as soon as those
+ * fields have been read, before the rest of the term is parsed.
+ * <p>
+ * The lemma is checked first, with accept(String), and then
+ * the term, with accept(IndexTerm).  The fields are read in the
+ * order of the FIELD constants, and only the fields up to the
+ * last one required are guaranteed to be set on the term.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public interface MetadataFilter extends TermFilter
+{
+  /**
+   * The lemma.
+   */
+  int FIELD_LEMMA = 0x01;
+  
+  /**
+   * The part of speech.
+   */
+  int FIELD_PART_OF_SPEECH = 0x02;
+  
+  /**
+   * The number of synsets.
+   */
+  int FIELD_SYNSET_COUNT = 0x04;
+  
+  /**
+   * The number of pointers and the pointer symbols.
+   */
+  int FIELD_POINTERS = 0x08;
+  
+  /**
+   * The tag sense count.
+   */
+  int FIELD_TAG_SENSE_COUNT = 0x10;
+  
+  /**
+   * The synset offsets.
+   */
+  int FIELD_SYNSET_OFFSETS = 0x20;
+  
+  
+  /**
+   * Return the fields needed by accept(IndexTerm), as a
+   * combination of the FIELD constants.
+   * 
+   * @return the fields needed by the filter
+   */
+  int getRequiredFields();
+  
+  
+  /**
+   * Determines if the term matches the filter.
+   * 
+   * @param term the term to check
+   * @return whether the term matches
+   */
+  boolean accept(IndexTerm term);
+}
@@ -28,13 +28,18 @@
 
 package io.miti.jawbone.filter;
 
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Provide a filter for search terms that only
  * accepts matches where the term passed to accept()
  * matches the regular expression string passed in
- * the constructor.
+ * the constructor.  The pattern is analyzed for the
+ * literal prefix and the literal strings that every
+ * match must contain (see RegexLiterals), which are
+ * checked before the regular expression.
  * 
  * @author mwallace
  * @version 1.0
@@ -46,6 +51,21 @@ public final class RegexFilter implements TermFilter
    */
   private Pattern pattern = null;
   
+  /**
+   * Whether to ignore the case.
+   */
+  private boolean ignoreCase = false;
+  
+  /**
+   * The literals that every match must contain.
+   */
+  private RegexLiterals literals = null;
+  
+  /**
+   * The matcher for the pattern, for each thread.
+   */
+  private ThreadLocal<Matcher> matchers = null;
+  
   
   /**
    * Default constructor.
@@ -65,10 +85,13 @@ public final class RegexFilter implements TermFilter
    */
   public RegexFilter(final String word, final boolean bIgnoreCase)
   {
+    ignoreCase = bIgnoreCase;
+    
     // Check the input
     if (word == null)
     {
       pattern = null;
+      literals = new RegexLiterals("");
     }
     else
     {
@@ -81,10 +104,54 @@ public final class RegexFilter implements TermFilter
       {
         pattern = Pattern.compile(word);
       }
+      
+      literals = new RegexLiterals(word);
+      matchers = new ThreadLocal<Matcher>()
+      {
+        @Override
+        protected Matcher initialValue()
+        {
+          return pattern.matcher("");
+        }
+      };
     }
   }
   
   
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
+  /**
+   * Returns the literal prefix of every match of the pattern.
+   * 
+   * @return the prefix (empty if there is none)
+   */
+  public String getPrefix()
+  {
+    return literals.getPrefix();
+  }
+  
+  
+  /**
+   * Returns the literal strings that every match of the
+   * pattern contains.
+   * 
+   * @return the required literals
+   */
+  public List<String> getLiterals()
+  {
+    return literals.getLiterals();
+  }
+  
+  
   /**
    * Determines if the term matches the source term.
    * 
@@ -105,7 +172,24 @@ public final class RegexFilter implements TermFilter
       return false;
     }
     
+    // Check the prefix and the literals
+    final String prefix = literals.getPrefix();
+    if (!word.regionMatches(ignoreCase, 0, prefix, 0, prefix.length()))
+    {
+      return false;
+    }
+    else if (!ignoreCase)
+    {
+      for (String literal : literals.getLiterals())
+      {
+        if (word.indexOf(literal) < 0)
+        {
+          return false;
+        }
+      }
+    }
+    
     // Use the regex package to compare words
-    return (pattern.matcher(word).matches());
+    return (matchers.get().reset(word).matches());
   }
 }
@@ -0,0 +1,357 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the literal strings that every match of a regular
+ * expression must contain, and the literal prefix that every
+ * match must start with.  Only the top level of the pattern is
+ * analyzed: groups, character classes and escapes such as \d
+ * end a run of literals, and a character followed by a
+ * quantifier that allows zero copies is dropped from its run.
+ * A pattern with a top-level alternation, inline flags, or an
+ * escape that's not understood here has no required literals.
+ * Since the results only narrow a search, anything that isn't
+ * certain is left out.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class RegexLiterals
+{
+  /**
+   * The escapes for a class of characters or a position, which
+   * end a run of literals.
+   */
+  private static final String CLASS_ESCAPES = "dDwWsSbBAGZzhHvVRXtnrfae";
+  
+  /**
+   * The literal prefix.
+   */
+  private String prefix = "";
+  
+  /**
+   * The required literals, including the prefix.
+   */
+  private List<String> literals = new ArrayList<String>(4);
+  
+  /**
+   * The position of the next character to read.
+   */
+  private int pos = 0;
+  
+  
+  /**
+   * Analyze a pattern.  The pattern must be a valid regular
+   * expression.
+   * 
+   * @param regex the pattern
+   */
+  RegexLiterals(final String regex)
+  {
+    if (!parse(regex))
+    {
+      prefix = "";
+      literals = Collections.emptyList();
+    }
+  }
+  
+  
+  /**
+   * Return the literal prefix of every match.
+   * 
+   * @return the prefix (empty if there is none)
+   */
+  String getPrefix()
+  {
+    return prefix;
+  }
+  
+  
+  /**
+   * Return the literals that every match contains.
+   * 
+   * @return the required literals
+   */
+  List<String> getLiterals()
+  {
+    return literals;
+  }
+  
+  
+  /**
+   * Read the top level of the pattern.
+   * 
+   * @param regex the pattern
+   * @return false if the pattern can't be analyzed
+   */
+  private boolean parse(final String regex)
+  {
+    // Quoted text can hide the end of a group or class
+    if (regex.indexOf("\\Q") >= 0)
+    {
+      return false;
+    }
+    
+    final int nLen = regex.length();
+    StringBuilder run = new StringBuilder();
+    boolean atStart = true;
+    pos = 0;
+    while (pos < nLen)
+    {
+      final char ch = regex.charAt(pos++);
+      if (((ch == '^') || (ch == '$')) && (!isQuantifier(regex)))
+      {
+        // An anchor doesn't use up any characters
+        continue;
+      }
+      
+      char literal = 0;
+      boolean isLiteral = false;
+      if (ch == '|')
+      {
+        return false;
+      }
+      else if (ch == '\\')
+      {
+        // An escaped symbol is a literal
+        final char next = regex.charAt(pos++);
+        if (!Character.isLetterOrDigit(next))
+        {
+          literal = next;
+          isLiteral = true;
+        }
+        else if (CLASS_ESCAPES.indexOf(next) < 0)
+        {
+          return false;
+        }
+      }
+      else if (ch == '(')
+      {
+        if ((regex.charAt(pos) == '?') && isFlag(regex.charAt(pos + 1)))
+        {
+          return false;
+        }
+        
+        skipGroup(regex);
+      }
+      else if (ch == '[')
+      {
+        skipClass(regex);
+      }
+      else if ((ch != '.') && (ch != '^') && (ch != '$'))
+      {
+        literal = ch;
+        isLiteral = true;
+      }
+      
+      // Check for a quantifier
+      final char quantifier = ((pos < nLen) ? regex.charAt(pos) : 0);
+      final boolean optional = ((quantifier == '?') || (quantifier == '*') ||
+                                (quantifier == '{'));
+      if (isLiteral && (!optional))
+      {
+        run.append(literal);
+      }
+      
+      if ((!isLiteral) || optional || (quantifier == '+'))
+      {
+        // The run of literals ends here
+        if (atStart)
+        {
+          prefix = run.toString();
+          atStart = false;
+        }
+        
+        addRun(run);
+        skipQuantifier(regex);
+      }
+    }
+    
+    if (atStart)
+    {
+      prefix = run.toString();
+    }
+    
+    addRun(run);
+    return true;
+  }
+  
+  
+  /**
+   * Return whether a quantifier is at the current position.
+   * 
+   * @param regex the pattern
+   * @return whether the next character is a quantifier
+   */
+  private boolean isQuantifier(final String regex)
+  {
+    if (pos >= regex.length())
+    {
+      return false;
+    }
+    
+    final char ch = regex.charAt(pos);
+    return ((ch == '?') || (ch == '*') || (ch == '+') || (ch == '{'));
+  }
+  
+  
+  /**
+   * Return whether a character after "(?" starts inline flags.
+   * 
+   * @param ch the character
+   * @return whether it's a flag
+   */
+  private static boolean isFlag(final char ch)
+  {
+    return (Character.isLetter(ch) || (ch == '-'));
+  }
+  
+  
+  /**
+   * Save a run of literals, if it's not empty, and clear it.
+   * 
+   * @param run the run of literals
+   */
+  private void addRun(final StringBuilder run)
+  {
+    if (run.length() > 0)
+    {
+      literals.add(run.toString());
+      run.setLength(0);
+    }
+  }
+  
+  
+  /**
+   * Skip a quantifier at the current position, if any, along
+   * with a following '?' or '+' for a lazy or possessive one.
+   * 
+   * @param regex the pattern
+   */
+  private void skipQuantifier(final String regex)
+  {
+    if (pos >= regex.length())
+    {
+      return;
+    }
+    
+    final char ch = regex.charAt(pos);
+    if (ch == '{')
+    {
+      pos = regex.indexOf('}', pos) + 1;
+    }
+    else if ((ch == '?') || (ch == '*') || (ch == '+'))
+    {
+      ++pos;
+    }
+    else
+    {
+      return;
+    }
+    
+    if ((pos < regex.length()) &&
+        ((regex.charAt(pos) == '?') || (regex.charAt(pos) == '+')))
+    {
+      ++pos;
+    }
+  }
+  
+  
+  /**
+   * Skip to the end of a group, after its opening parenthesis.
+   * 
+   * @param regex the pattern
+   */
+  private void skipGroup(final String regex)
+  {
+    int depth = 1;
+    while (depth > 0)
+    {
+      final char ch = regex.charAt(pos++);
+      if (ch == '\\')
+      {
+        ++pos;
+      }
+      else if (ch == '[')
+      {
+        skipClass(regex);
+      }
+      else if (ch == '(')
+      {
+        ++depth;
+      }
+      else if (ch == ')')
+      {
+        --depth;
+      }
+    }
+  }
+  
+  
+  /**
+   * Skip to the end of a character class, after its opening
+   * bracket.  Classes can be nested, and a ']' right after the
+   * opening bracket (or "[^") is a literal.
+   * 
+   * @param regex the pattern
+   */
+  private void skipClass(final String regex)
+  {
+    if (regex.charAt(pos) == '^')
+    {
+      ++pos;
+    }
+    if (regex.charAt(pos) == ']')
+    {
+      ++pos;
+    }
+    
+    while (true)
+    {
+      final char ch = regex.charAt(pos++);
+      if (ch == '\\')
+      {
+        ++pos;
+      }
+      else if (ch == '[')
+      {
+        skipClass(regex);
+      }
+      else if (ch == ']')
+      {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+import io.miti.jawbone.IndexTerm;
+
+/**
+ * Provide a filter for search terms that only accepts terms
+ * with a number of senses (synsets) in a range, and with a
+ * lemma accepted by another filter (if one is specified).
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SenseCountFilter implements MetadataFilter
+{
+  /**
+   * The filter for the lemma.
+   */
+  private TermFilter lemmaFilter = null;
+  
+  /**
+   * The minimum number of senses.
+   */
+  private int minSenses = 0;
+  
+  /**
+   * The maximum number of senses.
+   */
+  private int maxSenses = 0;
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SenseCountFilter()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Initializes the filter with the range of the number of senses.
+   * 
+   * @param nMinSenses the minimum number of senses
+   * @param nMaxSenses the maximum number of senses (-1 for no limit)
+   */
+  public SenseCountFilter(final int nMinSenses, final int nMaxSenses)
+  {
+    this(null, nMinSenses, nMaxSenses);
+  }
+  
+  
+  /**
+   * Initializes the filter with a filter for the lemma and the
+   * range of the number of senses.
+   * 
+   * @param filter the filter for the lemma (null for no filter)
+   * @param nMinSenses the minimum number of senses
+   * @param nMaxSenses the maximum number of senses (-1 for no limit)
+   */
+  public SenseCountFilter(final TermFilter filter,
+                          final int nMinSenses,
+                          final int nMaxSenses)
+  {
+    lemmaFilter = filter;
+    minSenses = nMinSenses;
+    maxSenses = nMaxSenses;
+  }
+  
+  
+  /**
+   * Determines if the lemma is accepted by the filter for the lemma.
+   * 
+   * @param word the lemma to check
+   * @return whether the lemma matches
+   */
+  public boolean accept(final String word)
+  {
+    return ((lemmaFilter == null) || (lemmaFilter.accept(word)));
+  }
+  
+  
+  /**
+   * Return the fields needed by accept(IndexTerm).
+   * 
+   * @return the fields needed by the filter
+   */
+  public int getRequiredFields()
+  {
+    return FIELD_SYNSET_COUNT;
+  }
+  
+  
+  /**
+   * Determines if the number of senses of the term is in range.
+   * 
+   * @param term the term to check
+   * @return whether the term matches
+   */
+  public boolean accept(final IndexTerm term)
+  {
+    final int count = term.getSynsetCount();
+    return ((count >= minSenses) && ((maxSenses < 0) || (count <= maxSenses)));
+  }
+}
@@ -28,6 +28,8 @@
 
 package io.miti.jawbone.filter;
 
+import java.util.Arrays;
+
 /**
  * Provide a filter for search terms that only
  * accepts matches where the term passed to accept()
@@ -54,6 +56,24 @@ public final class SimilarFilter implements TermFilter
    */
   private int maxScore = 0;
   
+  /**
+   * The bit mask of the positions of each character in the
+   * source term, for characters below 128.  Bit i is set if
+   * character i of the term matches.  This is null if the
+   * term is too long to fit the positions in a long.
+   */
+  private long[] asciiMasks = null;
+  
+  /**
+   * The other characters in the source term, in sorted order.
+   */
+  private char[] otherChars = null;
+  
+  /**
+   * The bit mask of the positions of each of the other characters.
+   */
+  private long[] otherMasks = null;
+  
   
   /**
    * Default constructor.
@@ -79,6 +99,91 @@ public final class SimilarFilter implements TermFilter
     term = word;
     ignoreCase = bIgnoreCase;
     maxScore = maxDistance;
+    
+    // Build the bit masks of the positions of the characters
+    if ((term != null) && (term.length() <= Long.SIZE))
+    {
+      buildMasks();
+    }
+  }
+  
+  
+  /**
+   * Build the bit mask of the positions of each character in
+   * the source term.
+   */
+  private void buildMasks()
+  {
+    asciiMasks = new long[128];
+    char[] chars = new char[term.length()];
+    int numOther = 0;
+    for (int i = 0; i < chars.length; ++i)
+    {
+      final char ch = fold(term.charAt(i));
+      if (ch < 128)
+      {
+        asciiMasks[ch] |= (1L << i);
+      }
+      else
+      {
+        chars[numOther++] = ch;
+      }
+    }
+    
+    // Save the distinct other characters, and their masks
+    Arrays.sort(chars, 0, numOther);
+    int numDistinct = 0;
+    for (int i = 0; i < numOther; ++i)
+    {
+      if ((numDistinct == 0) || (chars[i] != chars[numDistinct - 1]))
+      {
+        chars[numDistinct++] = chars[i];
+      }
+    }
+    
+    otherChars = Arrays.copyOf(chars, numDistinct);
+    otherMasks = new long[numDistinct];
+    for (int i = 0; i < term.length(); ++i)
+    {
+      final int index = Arrays.binarySearch(otherChars, fold(term.charAt(i)));
+      if (index >= 0)
+      {
+        otherMasks[index] |= (1L << i);
+      }
+    }
+  }
+  
+  
+  /**
+   * Returns the source term.
+   * 
+   * @return the source term
+   */
+  public String getTerm()
+  {
+    return term;
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
+  /**
+   * Returns the maximum distance between the two terms.
+   * 
+   * @return the maximum distance
+   */
+  public int getMaxDistance()
+  {
+    return maxScore;
   }
   
   
@@ -102,108 +207,170 @@ public final class SimilarFilter implements TermFilter
       return false;
     }
     
-    // Neither is null, so check how to compare the strings
-    int score = 0;
-    if (ignoreCase)
+    // Return whether the computed score is at or below the threshold
+    return (getDistance(word) <= maxScore);
+  }
+  
+  
+  /**
+   * Returns the Levenshtein distance between the source term
+   * and a word.  The computation stops once the distance is
+   * known to be over the maximum distance, so a result over
+   * the maximum is not necessarily the exact distance.
+   * 
+   * @param word the term to compare to the source term
+   * @return the distance between the terms
+   */
+  public int getDistance(final String word)
+  {
+    // Check the two terms for nullness
+    if ((word == null) || (term == null))
     {
-      // Ignore the case
-      score = getScore(term.toUpperCase(), word.toUpperCase());
+      return (((word == null) && (term == null)) ? 0 : Integer.MAX_VALUE);
     }
-    else
+    
+    // The distance is at least the difference in the lengths
+    final int diff = Math.abs(word.length() - term.length());
+    if (diff > maxScore)
     {
-      // Consider the case
-      score = getScore(term, word);
+      return diff;
     }
     
-    // Return whether the computed score is at or below the threshold
-    return (score <= maxScore);
+    // Compute the score, stopping once it's over the threshold
+    return ((asciiMasks != null) ? getScore(word) : getScore(term, word));
   }
   
   
   /**
-   * Returns the minimum of three integers.
+   * Return a character with its case folded, if case is ignored.
    * 
-   * @param a the first number
-   * @param b the second number
-   * @param c the third number
-   * @return the minimum of three numbers
+   * @param ch the character
+   * @return the character to compare
    */
-  private static int minimum(final int a, final int b, final int c)
+  private char fold(final char ch)
   {
-    return (Math.min(a, Math.min(b, c)));
+    return ((ignoreCase) ? Character.toUpperCase(ch) : ch);
   }
   
   
   /**
-   * Computes and returns the Levenshtein score to indicate
-   * how similar the two strings are.
+   * Return the bit mask of the positions of a character in the
+   * source term.
    * 
-   * @param s First string to compare
-   * @param t Second string to compare
-   * @return the Levenshtein rating
+   * @param ch the character, with its case folded
+   * @return the bit mask of the positions
    */
-  private int getScore(final String s, final String t)
+  private long getMask(final char ch)
   {
-    // Return the Levenshtein rating
-    int[][] d; // matrix
-    int n; // length of s
-    int m; // length of t
-    int i; // iterates through s
-    int j; // iterates through t
-    char s_i; // ith character of s
-    char t_j; // jth character of t
-    int cost; // cost
-    
-    // Step 1
-    n = s.length();
-    m = t.length();
-    if (n == 0)
+    if (ch < 128)
     {
-      return m;
+      return asciiMasks[ch];
     }
+    
+    final int index = Arrays.binarySearch(otherChars, ch);
+    return ((index < 0) ? 0L : otherMasks[index]);
+  }
+  
+  
+  /**
+   * Computes the Levenshtein distance between the source term and
+   * a word, using Myers' bit-parallel algorithm: the differences
+   * between adjacent entries in one column of the distance matrix
+   * are kept as bits in a long (one per character of the term),
+   * and each character of the word updates them all at once.
+   * The computation stops once the distance can't get back down
+   * to the threshold.
+   * 
+   * @param word the word to compare to the source term
+   * @return the Levenshtein distance, or a number over the
+   *         threshold if it's larger than that
+   */
+  private int getScore(final String word)
+  {
+    final int m = term.length();
+    final int n = word.length();
     if (m == 0)
     {
       return n;
     }
-    d = new int[n+1][m+1];
     
-    // Step 2
-    for (i = 0; i <= n; i++)
+    // Each bit of pv (mv) is set if the entry in that row is one
+    // more (less) than the entry above it
+    final long last = 1L << (m - 1);
+    long pv = -1L;
+    long mv = 0L;
+    int score = m;
+    for (int j = 0; j < n; ++j)
     {
-      d[i][0] = i;
+      final long eq = getMask(fold(word.charAt(j)));
+      final long xv = eq | mv;
+      final long xh = (((eq & pv) + pv) ^ pv) | eq;
+      long ph = mv | ~(xh | pv);
+      long mh = pv & xh;
+      
+      // Update the distance in the last row
+      if ((ph & last) != 0)
+      {
+        ++score;
+      }
+      else if ((mh & last) != 0)
+      {
+        --score;
+      }
+      
+      // Each remaining character lowers the distance by at most one
+      if ((score - (n - j - 1)) > maxScore)
+      {
+        return score;
+      }
+      
+      // The first row counts up from zero
+      ph = (ph << 1) | 1L;
+      mh = mh << 1;
+      pv = mh | ~(xv | ph);
+      mv = ph & xv;
     }
     
-    for (j = 0; j <= m; j++)
+    return score;
+  }
+  
+  
+  /**
+   * Computes the Levenshtein distance between two strings, for
+   * a source term that is too long for getScore(String).  Only
+   * two rows of the distance matrix are kept.
+   * 
+   * @param s First string to compare
+   * @param t Second string to compare
+   * @return the Levenshtein rating
+   */
+  private int getScore(final String s, final String t)
+  {
+    final int n = s.length();
+    final int m = t.length();
+    int[] prev = new int[m + 1];
+    int[] curr = new int[m + 1];
+    for (int j = 0; j <= m; j++)
     {
-      d[0][j] = j;
+      prev[j] = j;
     }
     
-    // Step 3
-    for (i = 1; i <= n; i++)
+    for (int i = 1; i <= n; i++)
     {
-      s_i = s.charAt(i - 1);
-      
-      // Step 4
-      for (j = 1; j <= m; j++)
+      final char s_i = fold(s.charAt(i - 1));
+      curr[0] = i;
+      for (int j = 1; j <= m; j++)
       {
-        t_j = t.charAt(j - 1);
-        
-        // Step 5
-        if (s_i == t_j)
-        {
-          cost = 0;
-        }
-        else
-        {
-          cost = 1;
-        }
-        
-        // Step 6
-        d[i][j] = minimum(d[i-1][j]+1, d[i][j-1]+1, d[i-1][j-1] + cost);
+        final int cost = ((s_i == fold(t.charAt(j - 1))) ? 0 : 1);
+        curr[j] = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1),
+                           prev[j - 1] + cost);
       }
+      
+      int[] swap = prev;
+      prev = curr;
+      curr = swap;
     }
     
-    // Step 7
-    return d[n][m];
+    return prev[m];
   }
 }
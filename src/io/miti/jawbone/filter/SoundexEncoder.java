@@ -0,0 +1,124 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+/**
+ * Computes the Soundex code of a term: the first character,
+ * followed by three digits for the groups of consonants that
+ * come after it.  This is the default encoder of a SoundFilter.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SoundexEncoder implements PhoneticEncoder
+{
+  /**
+   * The one instance of this class.
+   */
+  public static final SoundexEncoder INSTANCE = new SoundexEncoder();
+  
+  /**
+   * The number of characters in a Soundex code.
+   */
+  private static final int CODE_LENGTH = 4;
+  
+  /**
+   * The digit for each lower-case letter, or 0 for letters
+   * that are skipped.
+   */
+  private static final char[] DIGITS = "01230120022455012623010202".toCharArray();
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SoundexEncoder()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Returns the digit for a character.
+   * 
+   * @param ch the character to get the value for
+   * @return the digit for the specified character, or
+   *         '0' if it has none
+   */
+  private static char getDigit(final char ch)
+  {
+    final char lower = Character.toLowerCase(ch);
+    return (((lower >= 'a') && (lower <= 'z')) ? DIGITS[lower - 'a'] : '0');
+  }
+  
+  
+  /**
+   * Calculates the Soundex code for a string.
+   * 
+   * @param word the input string
+   * @return the Soundex code for the string
+   */
+  public String encode(final String word)
+  {
+    // Check the input
+    if ((word == null) || (word.length() < 1))
+    {
+      return "";
+    }
+    
+    // The first character of the string is the start
+    // of the soundex code
+    final char[] code = new char[CODE_LENGTH];
+    code[0] = word.charAt(0);
+    int nCount = 1;
+    
+    // Add the digit of each character that isn't the same
+    // as the previous one, until the code is full
+    char prev = getDigit(code[0]);
+    final int nLen = word.length();
+    for (int i = 1; (i < nLen) && (nCount < CODE_LENGTH); ++i)
+    {
+      final char digit = getDigit(word.charAt(i));
+      if ((digit != prev) && (digit != '0'))
+      {
+        code[nCount++] = digit;
+      }
+      
+      prev = digit;
+    }
+    
+    // Pad the code with zeros
+    while (nCount < CODE_LENGTH)
+    {
+      code[nCount++] = '0';
+    }
+    
+    return new String(code);
+  }
+}
@@ -73,6 +73,28 @@ public final class StartsWithFilter implements TermFilter
   }
   
   
+  /**
+   * Returns the source term.
+   * 
+   * @return the source term
+   */
+  public String getTerm()
+  {
+    return term;
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
   /**
    * Determines if the term matches the source term.
    * 
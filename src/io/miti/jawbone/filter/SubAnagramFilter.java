@@ -0,0 +1,123 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+/**
+ * Provide a filter for search terms that only
+ * accepts matches where the parameter to accept()
+ * can be spelled with the letters of the source term
+ * (passed in the constructor), using each letter no
+ * more often than it occurs in the source term.
+ * Spaces are ignored.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SubAnagramFilter implements TermFilter
+{
+  /**
+   * The characters of the source term.
+   */
+  private final LetterBag bag;
+  
+  /**
+   * Whether to ignore the case.
+   */
+  private final boolean ignoreCase;
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SubAnagramFilter()
+  {
+    super();
+    bag = null;
+    ignoreCase = false;
+  }
+  
+  
+  /**
+   * Initializes the filter with the letters to use and
+   * whether to ignore case on searches.
+   * 
+   * @param letters the letters that matching terms are built from
+   * @param bIgnoreCase whether to ignore the case of string comparisons
+   */
+  public SubAnagramFilter(final String letters, final boolean bIgnoreCase)
+  {
+    super();
+    ignoreCase = bIgnoreCase;
+    bag = new LetterBag(letters, ignoreCase);
+  }
+  
+  
+  /**
+   * Returns the non-space characters of the source term, sorted
+   * (in lower case, if case is ignored).
+   * 
+   * @return the sorted characters of the source term
+   */
+  public String getLetters()
+  {
+    return bag.getLetters();
+  }
+  
+  
+  /**
+   * Returns whether to ignore the case of string comparisons.
+   * 
+   * @return whether to ignore the case
+   */
+  public boolean isIgnoreCase()
+  {
+    return ignoreCase;
+  }
+  
+  
+  /**
+   * Determines if the term can be built from the letters of
+   * the source term.
+   * 
+   * @param word the term to compare to the source term
+   * @return whether the term matches
+   */
+  public boolean accept(final String word)
+  {
+    // Check the term
+    if (word == null)
+    {
+      return true;
+    }
+    
+    // Check the lengths before the characters
+    return ((LetterBag.countLetters(word) <= bag.getLetters().length()) &&
+            (bag.contains(word)));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+/**
+ * This defines the TermAutomaton interface, for a filter
+ * compiled into an automaton that reads a term one character
+ * at a time.  Since the state after a prefix is the same for
+ * every term with that prefix, the automaton can be run over
+ * a trie of the terms, skipping a branch as soon as its state
+ * is dead.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public interface TermAutomaton
+{
+  /**
+   * Returns the state before any characters are read.
+   * 
+   * @return the start state
+   */
+  long getStartState();
+  
+  
+  /**
+   * Returns the state after reading a character.
+   * 
+   * @param state the current state
+   * @param ch the character
+   * @return the next state
+   */
+  long step(long state, char ch);
+  
+  
+  /**
+   * Returns whether a state can't reach an accepting state,
+   * whatever characters follow.
+   * 
+   * @param state the state
+   * @return whether the state is dead
+   */
+  boolean isDead(long state);
+  
+  
+  /**
+   * Returns whether the characters read so far form a match.
+   * 
+   * @param state the state
+   * @return whether the state is accepting
+   */
+  boolean isAccepting(long state);
+}
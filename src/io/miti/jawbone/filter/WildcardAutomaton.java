@@ -0,0 +1,441 @@
+/*
+ * Written by Mike Wallace (mfwallace at gmail.com).  Available
+ * on the web site http://mfwallace.googlepages.com/.
+ * 
+ * Copyright (c) 2006 Mike Wallace.
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.miti.jawbone.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A wildcard pattern compiled into an automaton.  In the
+ * pattern, '*' matches any number of characters and '?'
+ * matches any one character.  The other characters of the
+ * pattern are the tokens of an NFA with one position per
+ * token; each '*' lets its position read any character
+ * without moving.  The characters of a term are mapped to
+ * classes (one for each distinct literal in the pattern, and
+ * one for everything else), and the NFA is converted to a
+ * DFA with a table of the next state for each state and
+ * class.  If the DFA would have too many states, the NFA is
+ * run instead, with its set of positions as the bits of a
+ * long.  Either way, a term is matched in one pass, without
+ * backtracking or building any objects.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class WildcardAutomaton implements TermAutomaton
+{
+  /**
+   * The largest number of states in the DFA.
+   */
+  private static final int MAX_STATES = 4096;
+  
+  /**
+   * The dead state of the DFA.
+   */
+  private static final long DEAD_STATE = -1L;
+  
+  /**
+   * Whether to ignore the case.
+   */
+  private final boolean ignoreCase;
+  
+  /**
+   * The class of each character below 128.
+   */
+  private final int[] asciiClasses = new int[128];
+  
+  /**
+   * The other literal characters in the pattern, sorted.
+   */
+  private final char[] otherChars;
+  
+  /**
+   * The class of each of the other characters.
+   */
+  private final int[] otherClasses;
+  
+  /**
+   * The number of character classes.
+   */
+  private final int numClasses;
+  
+  /**
+   * The next state for each state and class, or null if
+   * the NFA is run instead of a DFA.
+   */
+  private final int[] transitions;
+  
+  /**
+   * Whether each state of the DFA is accepting.
+   */
+  private final boolean[] accepting;
+  
+  /**
+   * For the NFA, the positions with a token that matches
+   * each class.
+   */
+  private final long[] matchMasks;
+  
+  /**
+   * For the NFA, the positions after a '*'.
+   */
+  private final long loopMask;
+  
+  /**
+   * For the NFA, the position after the last token.
+   */
+  private final long acceptMask;
+  
+  
+  /**
+   * Compile a wildcard pattern.
+   * 
+   * @param pattern the pattern (null or empty to match everything)
+   * @param bIgnoreCase whether to ignore the case of the characters
+   */
+  public WildcardAutomaton(final String pattern, final boolean bIgnoreCase)
+  {
+    ignoreCase = bIgnoreCase;
+    final String pat = (((pattern == null) || (pattern.length() == 0)) ?
+                          "*" : pattern);
+    
+    // Split the pattern into tokens, and note the positions after a '*'
+    final int nLen = pat.length();
+    char[] tokens = new char[nLen];
+    BitSet loops = new BitSet(nLen + 1);
+    int nTokens = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char ch = pat.charAt(i);
+      if (ch == '*')
+      {
+        loops.set(nTokens);
+      }
+      else
+      {
+        tokens[nTokens++] = ((ch == '?') ? ch : fold(ch));
+      }
+    }
+    
+    // Give each distinct literal a class; class 0 is everything else
+    char[] literals = new char[nTokens];
+    int nLiterals = 0;
+    for (int i = 0; i < nTokens; ++i)
+    {
+      if (tokens[i] != '?')
+      {
+        literals[nLiterals++] = tokens[i];
+      }
+    }
+    
+    Arrays.sort(literals, 0, nLiterals);
+    int nClasses = 1;
+    int nOthers = 0;
+    char[] others = new char[nLiterals];
+    int[] otherNums = new int[nLiterals];
+    for (int i = 0; i < nLiterals; ++i)
+    {
+      if ((i > 0) && (literals[i] == literals[i - 1]))
+      {
+        continue;
+      }
+      
+      if (literals[i] < 128)
+      {
+        asciiClasses[literals[i]] = nClasses++;
+      }
+      else
+      {
+        others[nOthers] = literals[i];
+        otherNums[nOthers++] = nClasses++;
+      }
+    }
+    
+    otherChars = Arrays.copyOf(others, nOthers);
+    otherClasses = Arrays.copyOf(otherNums, nOthers);
+    numClasses = nClasses;
+    
+    // Find the positions with a token that matches each class
+    BitSet[] matches = new BitSet[numClasses];
+    for (int c = 0; c < numClasses; ++c)
+    {
+      matches[c] = new BitSet(nTokens);
+    }
+    
+    for (int i = 0; i < nTokens; ++i)
+    {
+      if (tokens[i] == '?')
+      {
+        for (int c = 0; c < numClasses; ++c)
+        {
+          matches[c].set(i);
+        }
+      }
+      else
+      {
+        matches[getClass(tokens[i])].set(i);
+      }
+    }
+    
+    // Build the DFA, unless it has too many states
+    final List<Integer> table = buildDFA(matches, loops, nTokens);
+    if ((table == null) && (nTokens >= Long.SIZE))
+    {
+      throw new RuntimeException("The wildcard pattern is too complex");
+    }
+    else if (table != null)
+    {
+      final int nStates = table.size() / (numClasses + 1);
+      transitions = new int[nStates * numClasses];
+      accepting = new boolean[nStates];
+      for (int s = 0; s < nStates; ++s)
+      {
+        final int nBase = s * (numClasses + 1);
+        accepting[s] = (table.get(nBase).intValue() != 0);
+        for (int c = 0; c < numClasses; ++c)
+        {
+          transitions[(s * numClasses) + c] = table.get(nBase + 1 + c).intValue();
+        }
+      }
+      
+      matchMasks = null;
+      loopMask = 0L;
+      acceptMask = 0L;
+    }
+    else
+    {
+      // Run the NFA instead
+      transitions = null;
+      accepting = null;
+      matchMasks = new long[numClasses];
+      for (int c = 0; c < numClasses; ++c)
+      {
+        matchMasks[c] = toMask(matches[c]);
+      }
+      
+      loopMask = toMask(loops);
+      acceptMask = 1L << nTokens;
+    }
+  }
+  
+  
+  /**
+   * Convert the NFA to a DFA, by following the sets of positions
+   * reachable from the start.  Each state is saved as whether it's
+   * accepting, followed by the next state for each class (-1 for
+   * the dead state, which has no positions).
+   * 
+   * @param matches the positions with a token that matches each class
+   * @param loops the positions after a '*'
+   * @param nTokens the number of tokens
+   * @return the table of states, or null if there are too many
+   */
+  private List<Integer> buildDFA(final BitSet[] matches,
+                                 final BitSet loops,
+                                 final int nTokens)
+  {
+    List<BitSet> states = new ArrayList<BitSet>();
+    Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+    List<Integer> table = new ArrayList<Integer>();
+    
+    BitSet start = new BitSet(nTokens + 1);
+    start.set(0);
+    states.add(start);
+    ids.put(start, Integer.valueOf(0));
+    for (int s = 0; s < states.size(); ++s)
+    {
+      final BitSet state = states.get(s);
+      table.add(Integer.valueOf(state.get(nTokens) ? 1 : 0));
+      for (int c = 0; c < numClasses; ++c)
+      {
+        // A position moves past a matching token, or stays after a '*'
+        BitSet next = new BitSet(nTokens + 1);
+        for (int i = state.nextSetBit(0); i >= 0; i = state.nextSetBit(i + 1))
+        {
+          if (matches[c].get(i))
+          {
+            next.set(i + 1);
+          }
+          if (loops.get(i))
+          {
+            next.set(i);
+          }
+        }
+        
+        if (next.isEmpty())
+        {
+          table.add(Integer.valueOf((int) DEAD_STATE));
+          continue;
+        }
+        
+        Integer id = ids.get(next);
+        if (id == null)
+        {
+          if (states.size() == MAX_STATES)
+          {
+            return null;
+          }
+          
+          id = Integer.valueOf(states.size());
+          states.add(next);
+          ids.put(next, id);
+        }
+        
+        table.add(id);
+      }
+    }
+    
+    return table;
+  }
+  
+  
+  /**
+   * Convert a set of fewer than 64 positions to a long.
+   * 
+   * @param bits the set of positions
+   * @return the positions as the bits of a long
+   */
+  private static long toMask(final BitSet bits)
+  {
+    final long[] words = bits.toLongArray();
+    return ((words.length == 0) ? 0L : words[0]);
+  }
+  
+  
+  /**
+   * Return a character with its case folded, if case is ignored.
+   * 
+   * @param ch the character
+   * @return the character to compare
+   */
+  private char fold(final char ch)
+  {
+    return (ignoreCase ? Character.toUpperCase(ch) : ch);
+  }
+  
+  
+  /**
+   * Return the class of a character, with its case folded.
+   * 
+   * @param ch the character
+   * @return the class of the character
+   */
+  private int getClass(final char ch)
+  {
+    if (ch < 128)
+    {
+      return asciiClasses[ch];
+    }
+    
+    final int index = Arrays.binarySearch(otherChars, ch);
+    return ((index < 0) ? 0 : otherClasses[index]);
+  }
+  
+  
+  /**
+   * Returns the state before any characters are read.
+   * 
+   * @return the start state
+   */
+  public long getStartState()
+  {
+    return ((transitions != null) ? 0L : 1L);
+  }
+  
+  
+  /**
+   * Returns the state after reading a character.
+   * 
+   * @param state the current state
+   * @param ch the character
+   * @return the next state
+   */
+  public long step(final long state, final char ch)
+  {
+    final int nClass = getClass(fold(ch));
+    if (transitions != null)
+    {
+      return ((state < 0) ? DEAD_STATE
+                          : transitions[((int) state * numClasses) + nClass]);
+    }
+    
+    return (((state & matchMasks[nClass]) << 1) | (state & loopMask));
+  }
+  
+  
+  /**
+   * Returns whether a state can't reach an accepting state.
+   * Every position of the NFA can reach the end of the pattern,
+   * so only the state with no positions is dead.
+   * 
+   * @param state the state
+   * @return whether the state is dead
+   */
+  public boolean isDead(final long state)
+  {
+    return ((transitions != null) ? (state < 0) : (state == 0L));
+  }
+  
+  
+  /**
+   * Returns whether the characters read so far match the pattern.
+   * 
+   * @param state the state
+   * @return whether the state is accepting
+   */
+  public boolean isAccepting(final long state)
+  {
+    return ((transitions != null) ? ((state >= 0) && accepting[(int) state])
+                                  : ((state & acceptMask) != 0L));
+  }
+  
+  
+  /**
+   * Returns whether a term matches the pattern.
+   * 
+   * @param word the term
+   * @return whether the term matches
+   */
+  public boolean matches(final String word)
+  {
+    long state = getStartState();
+    final int nLen = word.length();
+    for (int i = 0; (i < nLen) && (!isDead(state)); ++i)
+    {
+      state = step(state, word.charAt(i));
+    }
+    
+    return isAccepting(state);
+  }
+}